@@ -1,19 +1,71 @@
 package puzzle;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.tinylog.Logger;
+import puzzle.metrics.Metrics;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The JavaFX application of the puzzle.
+ * <p>
+ * Only what is needed to show the board runs before the first frame; the table used for hints and the results
+ * file are loaded in the background afterwards, see {@link GameController#warmUp()}. The time from the start of
+ * the JVM to the first frame is logged. With the {@code puzzle.training} system property set to {@code true}
+ * the application exits as soon as the warm-up has finished, so that a run with
+ * {@code -XX:ArchiveClassesAtExit} records the classes of a whole start-up in an AppCDS archive.
+ */
 public class GameApplication extends Application {
+    private GameController controller;
+
     @Override
     public void start(Stage stage) throws Exception {
-        Parent root = FXMLLoader.load(getClass().getResource("/ui.fxml"));
+        String metricsFile = System.getProperty("puzzle.metrics.file");
+        if (metricsFile != null) {
+            Metrics.startSnapshots(Path.of(metricsFile), Duration.ofSeconds(10));
+        }
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ui.fxml"));
+        Parent root = loader.load();
+        controller = loader.getController();
         stage.setTitle("Four Coin puzzle");
         Scene scene = new Scene(root);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                // The pulse is about to be rendered, so the warm-up is queued behind it
+                Platform.runLater(GameApplication.this::firstFrameShown);
+            }
+        });
         stage.setScene(scene);
         stage.setResizable(true);
         stage.show();
     }
+
+    private void firstFrameShown() {
+        Logger.info("First frame shown {} ms after the JVM started", ManagementFactory.getRuntimeMXBean().getUptime());
+        var warmUp = controller.warmUp();
+        if (Boolean.getBoolean("puzzle.training")) {
+            warmUp.thenRun(() -> {
+                Logger.info("Warm-up finished {} ms after the JVM started, exiting the training run",
+                        ManagementFactory.getRuntimeMXBean().getUptime());
+                Platform.runLater(Platform::exit);
+            });
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (controller != null) {
+            controller.shutdown();
+        }
+        Metrics.stopSnapshots();
+    }
 }
@@ -1,33 +1,97 @@
 package puzzle;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.animation.TranslateTransition;
+import javafx.application.Platform;
+import javafx.collections.SetChangeListener;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
+import javafx.util.Duration;
 import org.tinylog.Logger;
+import puzzle.metrics.Metrics;
+import puzzle.metrics.UiMoveEvent;
+import puzzle.model.Bitboard;
 import puzzle.model.CoinState;
 import puzzle.model.Position;
 import puzzle.model.Square;
+import puzzle.model.TwoPhaseMoves;
+import puzzle.result.AsyncGameResultWriter;
+import puzzle.result.GameResult;
+import puzzle.result.InstrumentedGameResultManager;
+import puzzle.result.JsonGameResultManager;
+import puzzle.result.ReplayVerifier;
+import puzzle.solver.DistanceTable;
 import puzzle.util.BoardGameMoveSelector;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Controller for the puzzle game logic and UI.It manages the state of the board, player moves,
  * and displays game user interface using JavaFX components.
  */
 public class GameController {
+    /**
+     * File the results are saved to, can be overridden with the {@code puzzle.results} system property.
+     */
+    private static final Path RESULTS_FILE = Path.of(System.getProperty("puzzle.results",
+            Path.of(System.getProperty("user.home"), "four-coin-puzzle-results.json").toString()));
+
+    private static final int BOARD_SIZE = 4;
+
+    private static final Duration SLIDE_DURATION = Duration.millis(150);
+
+    private static final Duration AUTO_PLAY_DELAY = Duration.millis(600);
+
+    /**
+     * The writer of the results, opened in the background by {@link #warmUp()} so that Gson is not initialised
+     * before the board is shown.
+     */
+    private CompletableFuture<AsyncGameResultWriter> resultWriter;
     private CoinState coinState;
     private BoardGameMoveSelector moveSelector;
     private int numberOfMoves = 0;
     private LocalDateTime startTime;
     private String nameOfPlayer;
+    private final StackPane[][] squares = new StackPane[BOARD_SIZE][BOARD_SIZE];
+    private final Circle[][] coins = new Circle[BOARD_SIZE][BOARD_SIZE];
+
+    /**
+     * Whether coins slide to their new square instead of jumping there.
+     */
+    private boolean animateMoves = true;
+
+    private DistanceTable distanceTable;
+    private StackPane hintFrom;
+    private StackPane hintTo;
+    private Timeline autoPlay;
+
+    /**
+     * Whether the player has seen a hint or used auto-play in this game. Assisted games are not saved, so that
+     * they do not count on the leaderboard.
+     */
+    private boolean assisted;
+
+    /**
+     * Whether the game has already ended. Undoing the last move and making it again ends the game once more,
+     * but its result is saved and announced only the first time. A new game gets a new controller.
+     */
+    private boolean ended;
 
     /**
      * Component for selecting the date of the play.
@@ -59,6 +123,36 @@ public class GameController {
     @FXML
     private TextField numberOfMovesField;
 
+    /**
+     * Button showing the next move of an optimal solution.
+     */
+    @FXML
+    private Button hintButton;
+
+    /**
+     * Button playing the rest of an optimal solution.
+     */
+    @FXML
+    private Button autoPlayButton;
+
+    /**
+     * Button taking back the last move.
+     */
+    @FXML
+    private Button undoButton;
+
+    /**
+     * Button making the last move taken back again.
+     */
+    @FXML
+    private Button redoButton;
+
+    /**
+     * Label for short messages to the player.
+     */
+    @FXML
+    private Label messageLabel;
+
     /**
      * Sets initial state of the puzzle board, initializes the move selector and sets the start time.
      */
@@ -66,21 +160,98 @@ public class GameController {
     public void initialize() {
         coinState = new CoinState();
         moveSelector = new BoardGameMoveSelector(coinState);
+        moveSelector.attach();
+        moveSelector.getLegalTargets().addListener(this::highlightTargets);
+        coinState.addMoveListener((from, to, mobility) -> updateBoard(from, to));
         startTime = LocalDateTime.now();
         updateStartTime();
         initBoard();
         numberOfMovesField.setText(String.valueOf(numberOfMoves));
+        updateHistoryButtons();
+        hintButton.setDisable(true);
+        autoPlayButton.setDisable(true);
+    }
+
+    /**
+     * Starts the work that is not needed to show the board on background threads: building the table used
+     * for hints, opening the results file and registering the metrics with JMX. Called once the first frame
+     * has been shown.
+     *
+     * @return a future completed when the warm-up has finished, whether it succeeded or not
+     */
+    public CompletableFuture<Void> warmUp() {
+        return CompletableFuture.allOf(loadDistanceTable(), resultWriter(),
+                        CompletableFuture.runAsync(Metrics::registerMBeans))
+                .handle((ignored, e) -> null);
+    }
+
+    /**
+     * Returns the writer of the results, opening the results file in the background the first time. Reading
+     * the saved results also loads the classes used to save a result.
+     *
+     * @return the future writer of the results
+     */
+    private synchronized CompletableFuture<AsyncGameResultWriter> resultWriter() {
+        if (resultWriter == null) {
+            resultWriter = CompletableFuture.supplyAsync(() -> {
+                var manager = new InstrumentedGameResultManager(new JsonGameResultManager(RESULTS_FILE));
+                try {
+                    Logger.info("{} saved results", manager.getAll().size());
+                } catch (IOException e) {
+                    Logger.warn(e, "Could not read the saved results");
+                }
+                return new AsyncGameResultWriter(manager);
+            });
+        }
+        return resultWriter;
+    }
+
+    /**
+     * Highlights the squares the selected coin may move to.
+     *
+     * @param change a square added to or removed from the legal targets.
+     */
+    private void highlightTargets(SetChangeListener.Change<? extends Position> change) {
+        if (change.wasRemoved()) {
+            Position position = change.getElementRemoved();
+            squares[position.row()][position.col()].getStyleClass().remove("target");
+        }
+        if (change.wasAdded()) {
+            Position position = change.getElementAdded();
+            squares[position.row()][position.col()].getStyleClass().add("target");
+        }
+    }
+
+    /**
+     * Builds the table used for hints on a background thread and enables the hint buttons
+     * once it is ready.
+     *
+     * @return a future completed when the table has been built
+     */
+    private CompletableFuture<DistanceTable> loadDistanceTable() {
+        return CompletableFuture.supplyAsync(DistanceTable::standard)
+                .whenComplete((table, e) -> Platform.runLater(() -> {
+                    if (e != null) {
+                        Logger.error(e, "Could not build the distance table");
+                        messageLabel.setText("Hints are not available");
+                        return;
+                    }
+                    distanceTable = table;
+                    hintButton.setDisable(false);
+                    autoPlayButton.setDisable(false);
+                }));
     }
 
     /**
      * Initializes the puzzle board by creating squares for each position and setting up
-     * their event handlers.
+     * their event handlers. The squares and coins are created only once and are updated
+     * in place after every move.
      */
     public void initBoard() {
         gridPane.getChildren().clear();
-        for (var i = 0; i < 4; i++) {
-            for (var j = 0; j < 4; j++) {
-                Position position = new Position(i, j);
+        for (var i = 0; i < BOARD_SIZE; i++) {
+            for (var j = 0; j < BOARD_SIZE; j++) {
+                Position position = Position.of(i, j);
                 createSquare(position);
             }
         }
@@ -93,18 +264,20 @@ public class GameController {
      */
     public void createSquare(Position position) {
         StackPane square = new StackPane();
+        // The class is what the .square rules of the stylesheet, e.g. .square.target, select on
+        square.getStyleClass().add("square");
         square.setStyle("-fx-border-color: black");
         square.setPrefSize(100, 100);
+        // Clicks on the coin bubble up to the square, so one handler serves both
         square.setOnMouseClicked(event -> handleMouseClick(position));
-
-        if (coinState.getSquare(position) == Square.COIN) {
-            createCoin(square, position);
-        }
+        squares[position.row()][position.col()] = square;
+        createCoin(square, position);
         gridPane.add(square, position.col(), position.row());
     }
 
     /**
-     * Creates a coin at the specified position on board.
+     * Creates a coin at the specified position on board. The coin is only visible while the
+     * square at that position holds a coin.
      *
      * @param square a cell where the coin will be placed.
      * @param position position of the coin on the board.
@@ -113,10 +286,50 @@ public class GameController {
         Circle coin = new Circle(20);
         coin.setFill(Color.YELLOW);
         coin.setStroke(Color.BLACK);
-        coin.setOnMouseClicked(mouseEvent -> handleMouseClick(position));
+        coin.setVisible(coinState.getSquare(position) == Square.COIN);
+        coins[position.row()][position.col()] = coin;
         square.getChildren().add(coin);
         StackPane.setAlignment(coin, Pos.CENTER);
+    }
 
+    /**
+     * Sets whether coins slide to their new square instead of jumping there.
+     *
+     * @param animateMoves {@code true} to animate moves.
+     */
+    public void setAnimateMoves(boolean animateMoves) {
+        this.animateMoves = animateMoves;
+    }
+
+    /**
+     * Updates the two squares changed by a move, optionally sliding the coin from its
+     * old square to the new one. Called by the model after every move.
+     *
+     * @param from the index of the square the coin was moved from.
+     * @param to the index of the square the coin was moved to.
+     */
+    private void updateBoard(int from, int to) {
+        long start = System.nanoTime();
+        Bitboard bitboard = coinState.getBitboard();
+        int fromRow = bitboard.row(from);
+        int fromCol = bitboard.col(from);
+        int toRow = bitboard.row(to);
+        int toCol = bitboard.col(to);
+        Circle fromCoin = coins[fromRow][fromCol];
+        Circle toCoin = coins[toRow][toCol];
+        fromCoin.setVisible((coinState.getCoins() >>> from & 1) != 0);
+        toCoin.setVisible((coinState.getCoins() >>> to & 1) != 0);
+        if (animateMoves && toCoin.isVisible()) {
+            StackPane fromSquare = squares[fromRow][fromCol];
+            StackPane toSquare = squares[toRow][toCol];
+            var slide = new TranslateTransition(SLIDE_DURATION, toCoin);
+            slide.setFromX(fromSquare.getLayoutX() - toSquare.getLayoutX());
+            slide.setFromY(fromSquare.getLayoutY() - toSquare.getLayoutY());
+            slide.setToX(0);
+            slide.setToY(0);
+            slide.play();
+        }
+        Logger.debug("Board updated in {} µs", (System.nanoTime() - start) / 1000);
     }
 
     /**
@@ -126,20 +339,223 @@ public class GameController {
      */
     private void handleMouseClick(Position position) {
         Logger.debug("Clicked on: {}", position);
+        if (autoPlay != null) {
+            return;
+        }
+        var event = new UiMoveEvent();
+        event.begin();
         moveSelector.select(position);
 
-        if (moveSelector.isReadyToMove()) {
+        boolean moveMade = moveSelector.isReadyToMove();
+        if (moveMade) {
             moveSelector.makeMove();
-            numberOfMoves++;
+            afterMove();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.row = position.row();
+            event.col = position.col();
+            event.moveMade = moveMade;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts a move that has been made and checks if the game has ended.
+     */
+    private void afterMove() {
+        clearHint();
+        numberOfMoves++;
+        numberOfMovesField.setText(String.valueOf(numberOfMoves));
+        updateHistoryButtons();
+        if (ended) {
+            return;
+        }
+        if (coinState.isSolved()) {
+            ended = true;
+            Logger.info("Puzzle is solved!");
+            if (assisted) {
+                Logger.info("Not saving the result of an assisted game");
+                messageLabel.setText("Solved with help, the result is not saved");
+            } else {
+                saveResult(true);
+            }
+            handleSolvedAlert(true);
+        } else if (coinState.isGameOver()) {
+            ended = true;
+            Logger.warn("Puzzle was not solved!");
+            saveResult(false);
+            handleGameOverAlert(true);
+        }
+    }
+
+    /**
+     * Takes back the last move.
+     */
+    @FXML
+    private void undoMove() {
+        if (autoPlay == null && moveSelector.undo()) {
+            clearHint();
+            numberOfMoves--;
             numberOfMovesField.setText(String.valueOf(numberOfMoves));
-            initBoard();
-            if (coinState.isSolved()) {
-                Logger.info("Puzzle is solved!");
-                handleSolvedAlert(true);
-            } else if (coinState.isGameOver()) {
-                Logger.warn("Puzzle was not solved!");
-                handleGameOverAlert(true);
+        }
+        updateHistoryButtons();
+    }
+
+    /**
+     * Makes the last move taken back again.
+     */
+    @FXML
+    private void redoMove() {
+        if (autoPlay == null && moveSelector.redo()) {
+            afterMove();
+        }
+        updateHistoryButtons();
+    }
+
+    private void updateHistoryButtons() {
+        undoButton.setDisable(!coinState.getHistory().canUndo());
+        redoButton.setDisable(!coinState.getHistory().canRedo());
+    }
+
+    /**
+     * Highlights the squares of the next move of an optimal solution from the current position.
+     */
+    @FXML
+    private void showHint() {
+        clearHint();
+        int move = nextMove();
+        if (move < 0) {
+            return;
+        }
+        Bitboard bitboard = coinState.getBitboard();
+        assisted = true;
+        hintFrom = squares[bitboard.row(Bitboard.from(move))][bitboard.col(Bitboard.from(move))];
+        hintTo = squares[bitboard.row(Bitboard.to(move))][bitboard.col(Bitboard.to(move))];
+        hintFrom.getStyleClass().add("hint");
+        hintTo.getStyleClass().add("hint");
+    }
+
+    /**
+     * Starts playing the rest of an optimal solution from the current position, or stops it if it
+     * is already playing.
+     */
+    @FXML
+    private void toggleAutoPlay() {
+        if (autoPlay != null) {
+            stopAutoPlay();
+            return;
+        }
+        if (nextMove() < 0) {
+            return;
+        }
+        moveSelector.reset();
+        assisted = true;
+        autoPlay = new Timeline(new KeyFrame(AUTO_PLAY_DELAY, event -> Platform.runLater(this::autoPlayStep)));
+        autoPlay.setCycleCount(Animation.INDEFINITE);
+        autoPlayButton.setText("Stop");
+        autoPlay.play();
+    }
+
+    /**
+     * Makes the next move of the solution. Runs outside the animation pulse, so the alerts at the
+     * end of the game can wait for the user.
+     */
+    private void autoPlayStep() {
+        if (autoPlay == null) {
+            return;
+        }
+        int move = nextMove();
+        if (move < 0) {
+            stopAutoPlay();
+            return;
+        }
+        Bitboard bitboard = coinState.getBitboard();
+        int from = Bitboard.from(move);
+        int to = Bitboard.to(move);
+        coinState.makeMove(TwoPhaseMoves.of(bitboard, from, to));
+        if (coinState.isSolved() || coinState.isGameOver()) {
+            stopAutoPlay();
+        }
+        afterMove();
+    }
+
+    private void stopAutoPlay() {
+        if (autoPlay != null) {
+            autoPlay.stop();
+            autoPlay = null;
+        }
+        autoPlayButton.setText("Auto-play");
+    }
+
+    /**
+     * Looks up the next move of an optimal solution from the current position.
+     *
+     * @return the packed move, or {@code -1} if there is none.
+     */
+    private int nextMove() {
+        if (distanceTable == null) {
+            return -1;
+        }
+        int move = distanceTable.bestMove(coinState.getCoins());
+        if (move < 0 && !coinState.isSolved()) {
+            messageLabel.setText("The puzzle cannot be solved from here");
+        } else {
+            messageLabel.setText("");
+        }
+        return move;
+    }
+
+    private void clearHint() {
+        if (hintFrom != null) {
+            hintFrom.getStyleClass().remove("hint");
+            hintTo.getStyleClass().remove("hint");
+            hintFrom = null;
+            hintTo = null;
+        }
+    }
+
+    /**
+     * Hands the result of the finished game to the background writer. No file I/O is done on the
+     * JavaFX application thread.
+     *
+     * @param solved Indicates if the puzzle is solved.
+     */
+    private void saveResult(boolean solved) {
+        GameResult result = GameResult.builder()
+                .nameOfPlayer(nameOfPlayer == null || nameOfPlayer.isBlank() ? "Anonymous" : nameOfPlayer)
+                .solved(solved)
+                .numberOfMoves(numberOfMoves)
+                .duration(java.time.Duration.between(startTime, LocalDateTime.now()))
+                .moves(ReplayVerifier.encode(coinState.getBitboard(), coinState.getHistory().toArray()))
+                .build();
+        resultWriter().thenCompose(writer -> writer.submit(result)).whenComplete((ignored, e) -> {
+            if (e != null) {
+                Logger.error(e, "Could not save result of {}", result.getNameOfPlayer());
+            } else {
+                Logger.info("Saved result of {}", result.getNameOfPlayer());
             }
+        });
+    }
+
+    /**
+     * Stops the background result writer after the pending results are saved.
+     * Called when the application is stopped.
+     *
+     * @throws InterruptedException if interrupted while waiting for the pending results
+     */
+    public void shutdown() throws InterruptedException {
+        CompletableFuture<AsyncGameResultWriter> writer;
+        synchronized (this) {
+            writer = resultWriter;
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.get().close();
+        } catch (ExecutionException e) {
+            Logger.error(e.getCause(), "The results file was never opened");
         }
     }
 
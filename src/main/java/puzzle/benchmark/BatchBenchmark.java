@@ -0,0 +1,101 @@
+package puzzle.benchmark;
+
+import org.tinylog.configuration.Configuration;
+import puzzle.model.BatchEvaluator;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.model.PlacementIndex;
+import puzzle.model.Position;
+
+import java.util.Random;
+
+/**
+ * Measures how many boards per second are evaluated through {@link CoinState}, one at a time by
+ * {@link BatchEvaluator#scalar(Bitboard)} and by {@link BatchEvaluator#create(Bitboard)}. Every board is asked
+ * whether it is solved, whether the game is over, which coins may be moved and where one of its coins may go.
+ * Through {@link CoinState} the last two questions are asked position by position.
+ * <p>
+ * Run with {@code --add-modules jdk.incubator.vector} to measure the vectorized evaluator; without it both
+ * evaluators are scalar.
+ * <p>
+ * Usage: {@code BatchBenchmark [numberOfBoards]}, one million boards by default.
+ */
+public class BatchBenchmark {
+
+    /**
+     * Starting point of the benchmark.
+     *
+     * @param args number of boards to evaluate
+     */
+    public static void main(String[] args) {
+        // CoinState logs every check, which would be measured instead of the checks
+        Configuration.set("level", "off");
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        var random = new Random(44);
+        Bitboard bitboard = Bitboard.STANDARD;
+        var placements = PlacementIndex.of(bitboard, 4);
+        long[] boards = new long[size];
+        int[] from = new int[size];
+        for (var i = 0; i < size; i++) {
+            boards[i] = placements.unrank(random.nextLong(placements.size()));
+            from[i] = random.nextInt(bitboard.cells());
+        }
+        CoinState[] states = new CoinState[size];
+        for (var i = 0; i < size; i++) {
+            states[i] = CoinState.of(boards[i]);
+        }
+        BatchEvaluator vector = BatchEvaluator.create(bitboard);
+        BatchEvaluator scalar = BatchEvaluator.scalar(bitboard);
+        System.out.printf("%d boards, evaluator %s%n", size, vector.getClass().getSimpleName());
+
+        long[] mobile = new long[size];
+        long[] targets = new long[size];
+        boolean[] solved = new boolean[size];
+        boolean[] gameOver = new boolean[size];
+        for (var round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            long checksum = 0;
+            for (var i = 0; i < size; i++) {
+                checksum += coinState(states[i], bitboard.row(from[i]), bitboard.col(from[i]));
+            }
+            report("CoinState", size, System.nanoTime() - begin, checksum);
+
+            for (BatchEvaluator evaluator : new BatchEvaluator[]{scalar, vector}) {
+                begin = System.nanoTime();
+                evaluator.solved(boards, solved, size);
+                evaluator.gameOver(boards, gameOver, size);
+                evaluator.mobile(boards, mobile, size);
+                evaluator.targets(boards, from, targets, size);
+                long elapsed = System.nanoTime() - begin;
+                checksum = 0;
+                for (var i = 0; i < size; i++) {
+                    checksum += (solved[i] ? 1 : 0) + (gameOver[i] ? 2 : 0)
+                            + Long.bitCount(mobile[i]) + Long.bitCount(targets[i]);
+                }
+                report(evaluator.getClass().getSimpleName(), size, elapsed, checksum);
+            }
+        }
+    }
+
+    private static int coinState(CoinState state, int row, int col) {
+        int result = (state.isSolved() ? 1 : 0) + (state.isGameOver() ? 2 : 0);
+        for (var r = 0; r < 4; r++) {
+            for (var c = 0; c < 4; c++) {
+                if (state.isLegalToMoveFrom(new Position(r, c))) {
+                    result++;
+                }
+            }
+        }
+        var position = new Position(row, col);
+        for (var move : state.getLegalMoves()) {
+            if (move.from().equals(position)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static void report(String name, int size, long elapsed, long checksum) {
+        System.out.printf("%-20s %8.1f million boards/s (checksum %d)%n", name, size * 1e3 / elapsed, checksum);
+    }
+}
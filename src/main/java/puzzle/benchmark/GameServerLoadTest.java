@@ -0,0 +1,124 @@
+package puzzle.benchmark;
+
+import puzzle.model.Bitboard;
+import puzzle.server.GameServer;
+import puzzle.server.SessionManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for {@link GameServer} running against localhost.
+ * <p>
+ * Starts a server, connects all sessions first so that they are open at the same time, then lets every session
+ * play random legal moves, restarting its game whenever it ends. Prints the throughput and the p50/p99 latency
+ * of a move.
+ * <p>
+ * Usage: {@code GameServerLoadTest [sessions] [movesPerSession]}.
+ */
+public class GameServerLoadTest {
+
+    /**
+     * Starting point of the load test.
+     *
+     * @param args number of sessions and moves per session
+     * @throws Exception if the server cannot be started or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        var manager = new SessionManager();
+        try (var server = new GameServer(manager, 0)) {
+            server.start();
+            run(server.getPort(), manager, sessions, moves);
+        }
+    }
+
+    private static void run(int port, SessionManager manager, int sessions, int moves)
+            throws InterruptedException, ExecutionException {
+        long[][] latencies = new long[sessions][];
+        var connected = new CountDownLatch(sessions);
+        long start;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (var c = 0; c < sessions; c++) {
+                int id = c;
+                futures.add(executor.submit(() -> {
+                    latencies[id] = runClient(port, manager.getBitboard(), id, moves, connected);
+                    return null;
+                }));
+            }
+            connected.await();
+            System.out.printf("%d sessions open%n", manager.size());
+            start = System.nanoTime();
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d moves in %d ms (%.0f moves/s)%n", all.length, elapsed / 1_000_000, all.length * 1e9 / elapsed);
+        System.out.printf("p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+    }
+
+    private static long[] runClient(int port, Bitboard bitboard, int id, int moves, CountDownLatch connected)
+            throws IOException, InterruptedException {
+        var random = new Random(id);
+        long[] latencies = new long[moves];
+        int[] legalMoves = new int[bitboard.cells() * 4 * Bitboard.MAX_DISTANCE];
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            String state = in.readLine();
+            connected.countDown();
+            connected.await();
+            for (var i = 0; i < moves; ) {
+                long coins = Long.parseUnsignedLong(state.split(" ")[1], 16);
+                int count = bitboard.isSolved(coins) ? 0 : bitboard.legalMoves(coins, legalMoves);
+                if (count == 0) {
+                    state = send(in, out, "RESTART");
+                    continue;
+                }
+                int move = legalMoves[random.nextInt(count)];
+                int from = Bitboard.from(move);
+                int to = Bitboard.to(move);
+                long begin = System.nanoTime();
+                state = send(in, out, "MOVE " + bitboard.row(from) + " " + bitboard.col(from)
+                        + " " + bitboard.row(to) + " " + bitboard.col(to));
+                latencies[i++] = System.nanoTime() - begin;
+                if (!state.startsWith("OK")) {
+                    throw new IllegalStateException("Move rejected: " + state);
+                }
+            }
+            send(in, out, "QUIT");
+        }
+        return latencies;
+    }
+
+    private static String send(BufferedReader in, BufferedWriter out, String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+        return in.readLine();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
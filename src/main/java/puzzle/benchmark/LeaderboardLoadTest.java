@@ -0,0 +1,137 @@
+package puzzle.benchmark;
+
+import puzzle.result.GameResult;
+import puzzle.result.JsonGameResultManager;
+import puzzle.result.LeaderboardServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for {@link LeaderboardServer} running against localhost.
+ * <p>
+ * Starts a server on a temporary results file, then runs concurrent clients that mostly read the leaderboard
+ * (half of them with conditional requests), look up players and occasionally submit a result.
+ * Prints the throughput and the p50/p99 latency.
+ * <p>
+ * Usage: {@code LeaderboardLoadTest [clients] [requestsPerClient] [initialResults]}.
+ */
+public class LeaderboardLoadTest {
+
+    /**
+     * Starting point of the load test.
+     *
+     * @param args number of clients, requests per client and results in the file at startup
+     * @throws Exception if the server cannot be started or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int initialResults = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        Path file = Files.createTempFile("leaderboard", ".json");
+        try {
+            var manager = new JsonGameResultManager(file);
+            manager.addAll(generate(initialResults, new Random(1)));
+            try (var server = new LeaderboardServer(manager, 0)) {
+                server.start();
+                run(URI.create("http://localhost:" + server.getPort()), clients, requests);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(URI base, int clients, int requests) throws InterruptedException, ExecutionException {
+        var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        var notModified = new LongAdder();
+        long[][] latencies = new long[clients][];
+        long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (var c = 0; c < clients; c++) {
+                int id = c;
+                futures.add(executor.submit(() -> {
+                    latencies[id] = runClient(client, base, id, requests, notModified);
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d requests in %d ms (%.0f requests/s), %d not modified%n",
+                all.length, elapsed / 1_000_000, all.length * 1e9 / elapsed, notModified.sum());
+        System.out.printf("p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+    }
+
+    private static long[] runClient(HttpClient client, URI base, int id, int requests, LongAdder notModified)
+            throws IOException, InterruptedException {
+        var random = new Random(id);
+        long[] latencies = new long[requests];
+        String etag = null;
+        for (var i = 0; i < requests; i++) {
+            int kind = random.nextInt(100);
+            HttpRequest request;
+            if (kind < 80) {
+                var builder = HttpRequest.newBuilder(base.resolve("/leaderboard"));
+                if (etag != null && id % 2 == 0) {
+                    builder.header("If-None-Match", etag);
+                }
+                request = builder.build();
+            } else if (kind < 98) {
+                request = HttpRequest.newBuilder(base.resolve("/players/player" + random.nextInt(1000))).build();
+            } else {
+                String body = String.format("{\"nameOfPlayer\":\"player%d\",\"solved\":%b,\"numberOfMoves\":%d,\"duration\":\"PT%dS\"}",
+                        random.nextInt(1000), random.nextBoolean(), 11 + random.nextInt(40), 10 + random.nextInt(90));
+                request = HttpRequest.newBuilder(base.resolve("/results"))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            latencies[i] = System.nanoTime() - start;
+            if (response.statusCode() == 304) {
+                notModified.increment();
+            }
+            if (kind < 80) {
+                etag = response.headers().firstValue("ETag").orElse(etag);
+            }
+        }
+        return latencies;
+    }
+
+    private static List<GameResult> generate(int count, Random random) {
+        List<GameResult> results = new ArrayList<>(count);
+        for (var i = 0; i < count; i++) {
+            results.add(GameResult.builder()
+                    .nameOfPlayer("player" + random.nextInt(1000))
+                    .solved(random.nextBoolean())
+                    .numberOfMoves(11 + random.nextInt(40))
+                    .duration(Duration.ofSeconds(10 + random.nextInt(90)))
+                    .build());
+        }
+        return results;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,69 @@
+package puzzle.benchmark;
+
+import puzzle.result.GameResult;
+import puzzle.result.LogGameResultManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long {@link LogGameResultManager} takes to recover a large log whose last record was torn
+ * by a crash.
+ * <p>
+ * Usage: {@code RecoveryBenchmark [numberOfResults]}, one million results by default.
+ */
+public class RecoveryBenchmark {
+
+    /**
+     * Starting point of the benchmark.
+     *
+     * @param args number of results in the log
+     * @throws IOException if the temporary log cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("recovery");
+        Path log = directory.resolve("results.log");
+        try {
+            var random = new Random(7);
+            try (var manager = new LogGameResultManager(log)) {
+                List<GameResult> batch = new ArrayList<>();
+                for (var i = 0; i < size; i++) {
+                    batch.add(GameResult.builder()
+                            .nameOfPlayer("player" + random.nextInt(10_000))
+                            .solved(random.nextBoolean())
+                            .numberOfMoves(11 + random.nextInt(40))
+                            .duration(Duration.ofSeconds(10 + random.nextInt(90)))
+                            .build());
+                    if (batch.size() == 10_000 || i == size - 1) {
+                        manager.append(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            // Simulate a crash in the middle of writing a record
+            Files.write(log, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+            System.out.printf("%d results, %d bytes%n", size, Files.size(log));
+
+            long start = System.nanoTime();
+            try (var manager = new LogGameResultManager(log)) {
+                System.out.printf("recovery took %.3f ms%n", (System.nanoTime() - start) / 1e6);
+                System.out.printf("%d results recovered%n", manager.getAll().size());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
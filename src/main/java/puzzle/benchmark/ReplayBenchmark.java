@@ -0,0 +1,96 @@
+package puzzle.benchmark;
+
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.result.GameResult;
+import puzzle.result.GameResultTypeAdapter;
+import puzzle.result.ReplayVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures how many moves per second {@link ReplayVerifier} replays, on one core from memory and on every
+ * core from a file of random games.
+ * <p>
+ * Usage: {@code ReplayBenchmark [numberOfGames]}, one million games by default.
+ */
+public class ReplayBenchmark {
+
+    private static final int MAX_MOVES = 60;
+
+    /**
+     * Starting point of the benchmark.
+     *
+     * @param args number of games to replay
+     * @throws IOException if the temporary file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        var random = new Random(7);
+        Bitboard bitboard = Bitboard.STANDARD;
+        long start = new CoinState().getCoins();
+        String[] games = new String[size];
+        boolean[] solved = new boolean[size];
+        long totalMoves = 0;
+        int[] legalMoves = new int[bitboard.cells() * bitboard.cells()];
+        for (var i = 0; i < size; i++) {
+            long coins = start;
+            int[] moves = new int[MAX_MOVES];
+            int count = 0;
+            while (count < MAX_MOVES && !bitboard.isSolved(coins) && !bitboard.isGameOver(coins)) {
+                int move = legalMoves[random.nextInt(bitboard.legalMoves(coins, legalMoves))];
+                coins = bitboard.move(coins, Bitboard.from(move), Bitboard.to(move));
+                moves[count++] = move;
+            }
+            games[i] = ReplayVerifier.encode(bitboard, Arrays.copyOf(moves, count));
+            solved[i] = bitboard.isSolved(coins);
+            totalMoves += count;
+        }
+        var verifier = new ReplayVerifier();
+
+        for (var round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            int valid = 0;
+            for (var i = 0; i < size; i++) {
+                if (verifier.verify(games[i], games[i].length() / 4, solved[i]) == ReplayVerifier.Verdict.VALID) {
+                    valid++;
+                }
+            }
+            long elapsed = System.nanoTime() - begin;
+            System.out.printf("one core: %d of %d games valid, %.1f million moves/s%n",
+                    valid, size, totalMoves * 1e3 / elapsed);
+        }
+
+        Path file = Files.createTempFile("replay", ".jsonl");
+        try {
+            var adapter = new GameResultTypeAdapter();
+            try (var writer = Files.newBufferedWriter(file)) {
+                for (var i = 0; i < size; i++) {
+                    writer.write(adapter.toJson(GameResult.builder()
+                            .nameOfPlayer("player" + random.nextInt(10_000))
+                            .solved(solved[i])
+                            .numberOfMoves(games[i].length() / 4)
+                            .duration(Duration.ofSeconds(10 + random.nextInt(90)))
+                            .moves(games[i])
+                            .build()));
+                    writer.newLine();
+                }
+            }
+            System.out.printf("%d games, %d moves, %d bytes%n", size, totalMoves, Files.size(file));
+            for (var round = 0; round < 3; round++) {
+                long begin = System.nanoTime();
+                var report = verifier.verifyAll(file);
+                long elapsed = System.nanoTime() - begin;
+                System.out.printf("all cores from file: %s, %.1f million moves/s%n",
+                        report.verdicts(), report.moves() * 1e3 / elapsed);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package puzzle.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import puzzle.result.GameResult;
+import puzzle.result.JsonGameResultManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares loading a results file with Gson's reflective adapter, as the results were loaded before, against
+ * {@link puzzle.result.GameResultTypeAdapter}.
+ * <p>
+ * Usage: {@code ResultLoadBenchmark [numberOfResults] [rounds]}, by default one million results and five rounds.
+ */
+public class ResultLoadBenchmark {
+
+    /**
+     * Starting point of the benchmark.
+     *
+     * @param args number of results and number of rounds
+     * @throws IOException if the temporary results file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path file = Files.createTempFile("results", ".json");
+        try {
+            writeResults(file, size);
+            System.out.printf("%d results, %d bytes%n", size, Files.size(file));
+            var manager = new JsonGameResultManager(file);
+            for (var round = 1; round <= rounds; round++) {
+                long reflective = time(() -> loadReflective(file));
+                long streaming = time(() -> manager.getAll().size());
+                System.out.printf("round %d: reflective %d ms, streaming adapter %d ms%n",
+                        round, reflective / 1_000_000, streaming / 1_000_000);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeResults(Path file, int size) throws IOException {
+        var random = new Random(42);
+        try (var writer = new JsonWriter(Files.newBufferedWriter(file))) {
+            writer.beginArray();
+            for (var i = 0; i < size; i++) {
+                writer.beginObject();
+                writer.name("nameOfPlayer").value("player" + random.nextInt(10_000));
+                writer.name("solved").value(random.nextBoolean());
+                writer.name("numberOfMoves").value(10 + random.nextInt(40));
+                writer.name("duration").value(Duration.ofSeconds(10 + random.nextInt(90)).toString());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+    }
+
+    /**
+     * The fields of {@link GameResult} before the streaming adapter, with the duration kept as a string.
+     */
+    private static class LegacyGameResult {
+        private String nameOfPlayer;
+        private boolean solved;
+        private int numberOfMoves;
+        private String duration;
+    }
+
+    /**
+     * Loads the file the way the manager did before the streaming adapter: with a plain {@link Gson} and the
+     * reflective adapter of the former result class. The durations stay strings, as they did then.
+     */
+    private static int loadReflective(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            List<LegacyGameResult> results = new Gson().fromJson(reader, new TypeToken<List<LegacyGameResult>>(){}.getType());
+            return results.size();
+        }
+    }
+
+    private static long time(IoTask task) throws IOException {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        int run() throws IOException;
+    }
+}
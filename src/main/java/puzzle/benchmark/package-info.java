@@ -0,0 +1,26 @@
+/**
+ * Contains simple benchmark programs that are run by hand, each from its own main method.
+ *
+ * <p>This package has:
+ * <ul>
+ *     <li>
+ *         {@link puzzle.benchmark.ResultLoadBenchmark}: Measures how long it takes to load a large results file.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.benchmark.LeaderboardLoadTest}: Runs concurrent clients against a local leaderboard server.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.benchmark.RecoveryBenchmark}: Measures the recovery time of a large results log.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.benchmark.ReplayBenchmark}: Measures how fast recorded games are replayed and verified.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.benchmark.GameServerLoadTest}: Runs many concurrent sessions against a local game server.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.benchmark.BatchBenchmark}: Compares how fast boards are evaluated one by one and in batches.
+ *     </li>
+ * </ul>
+ */
+package puzzle.benchmark;
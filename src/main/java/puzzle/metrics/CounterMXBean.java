@@ -0,0 +1,14 @@
+package puzzle.metrics;
+
+/**
+ * JMX view of a {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    /**
+     * Returns the current value of the counter.
+     *
+     * @return the value of the counter
+     */
+    long getCount();
+}
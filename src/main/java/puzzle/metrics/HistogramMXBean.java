@@ -0,0 +1,42 @@
+package puzzle.metrics;
+
+/**
+ * JMX view of a {@link Histogram}.
+ */
+public interface HistogramMXBean {
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    long getCount();
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or {@code 0} if nothing was recorded
+     */
+    double getMean();
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the largest value, or {@code 0} if nothing was recorded
+     */
+    long getMax();
+
+    /**
+     * Returns an upper bound of the median of the recorded values.
+     *
+     * @return the median, rounded up to a power of two
+     */
+    long getP50();
+
+    /**
+     * Returns an upper bound of the 99th percentile of the recorded values.
+     *
+     * @return the 99th percentile, rounded up to a power of two
+     */
+    long getP99();
+}
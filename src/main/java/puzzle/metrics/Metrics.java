@@ -0,0 +1,176 @@
+package puzzle.metrics;
+
+import org.tinylog.Logger;
+import puzzle.result.AtomicFiles;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the counters, histograms and timers of the application.
+ * <p>
+ * Metrics are looked up by name once, typically into a {@code static final} field, and then updated on hot
+ * paths without locking or allocation. After {@link #registerMBeans()} has been called every metric is
+ * registered as an MXBean in the platform MBean server under the domain {@code puzzle}; until then creating a
+ * metric does not touch JMX, so that metrics in {@code static} fields do not start the MBean server while the
+ * application is starting. {@link #startSnapshots(Path, Duration)} writes all metrics to a file periodically,
+ * replacing it with {@link AtomicFiles}.
+ */
+public final class Metrics {
+
+    private static final String DOMAIN = "puzzle";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService snapshots;
+    // Guarded by Metrics.class
+    private static boolean registerMBeans;
+    private static final Set<String> REGISTERED = new HashSet<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the counter with the specified name, creating it if needed.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        Counter counter = COUNTERS.computeIfAbsent(name, Counter::new);
+        register(counter, name);
+        return counter;
+    }
+
+    /**
+     * Returns the histogram with the specified name, creating it if needed.
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     * @throws IllegalArgumentException if a timer has the same name
+     */
+    public static Histogram histogram(String name) {
+        Histogram histogram = HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+        if (histogram instanceof Timer) {
+            throw new IllegalArgumentException("Metric is a timer: " + name);
+        }
+        register(histogram, name);
+        return histogram;
+    }
+
+    /**
+     * Returns the timer with the specified name, creating it if needed.
+     *
+     * @param name the name of the timer
+     * @return the timer
+     * @throws IllegalArgumentException if a histogram has the same name
+     */
+    public static Timer timer(String name) {
+        Histogram timer = HISTOGRAMS.computeIfAbsent(name, Timer::new);
+        if (!(timer instanceof Timer)) {
+            throw new IllegalArgumentException("Metric is a histogram: " + name);
+        }
+        register(timer, name);
+        return (Timer) timer;
+    }
+
+    /**
+     * Registers every metric created so far as an MXBean, and every metric created later as soon as it is
+     * created. Starts the platform MBean server, which takes a noticeable time, so applications call this
+     * once they are up. Calling this method again has no effect.
+     */
+    public static synchronized void registerMBeans() {
+        if (registerMBeans) {
+            return;
+        }
+        long start = System.nanoTime();
+        registerMBeans = true;
+        COUNTERS.forEach((name, counter) -> register(counter, name));
+        HISTOGRAMS.forEach((name, histogram) -> register(histogram, name));
+        Logger.debug("Registered {} metric(s) with JMX in {} ms", REGISTERED.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static synchronized void register(Object metric, String name) {
+        if (!registerMBeans) {
+            return;
+        }
+        String type = metric instanceof Timer ? "Timer" : metric instanceof Histogram ? "Histogram" : "Counter";
+        String objectName = DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name);
+        // A metric created while registerMBeans() runs may be seen by both, so it is registered only once
+        if (!REGISTERED.add(objectName)) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metric, new ObjectName(objectName));
+        } catch (JMException | RuntimeException e) {
+            Logger.warn(e, "Could not register metric {} with JMX", name);
+        }
+    }
+
+    /**
+     * Writes the current value of every metric to a writer, one metric per line.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeSnapshot(Writer writer) throws IOException {
+        writer.write("# " + Instant.now() + System.lineSeparator());
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            writer.write(String.format("%s count=%d%n", counter.getName(), counter.getCount()));
+        }
+        for (Histogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            writer.write(String.format("%s count=%d mean=%.1f p50=%d p99=%d max=%d%n", histogram.getName(),
+                    histogram.getCount(), histogram.getMean(), histogram.getP50(), histogram.getP99(), histogram.getMax()));
+        }
+    }
+
+    /**
+     * Starts writing a snapshot of all metrics to a file periodically. The file is replaced by each snapshot.
+     * Calling this method again replaces the previous schedule.
+     *
+     * @param file the file to write the snapshots to
+     * @param period the time between snapshots
+     */
+    public static synchronized void startSnapshots(Path file, Duration period) {
+        stopSnapshots();
+        snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "metrics-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleAtFixedRate(() -> {
+            try {
+                AtomicFiles.writeText(file, Metrics::writeSnapshot);
+            } catch (IOException | RuntimeException e) {
+                Logger.warn(e, "Could not write metrics snapshot to {}", file);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+        Logger.info("Writing metrics to {} every {}", file, period);
+    }
+
+    /**
+     * Stops writing snapshots started by {@link #startSnapshots(Path, Duration)}.
+     */
+    public static synchronized void stopSnapshots() {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+            snapshots = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package puzzle.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of reading or writing a results file.
+ */
+@Name("puzzle.ResultIo")
+@Label("Result I/O")
+@Category({"Puzzle", "Results"})
+@Description("Reading or writing a results file")
+@Enabled
+@Threshold("10 ms")
+@StackTrace(true)
+public class ResultIoEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Entries")
+    @Description("Number of results read or written")
+    public int entries;
+}
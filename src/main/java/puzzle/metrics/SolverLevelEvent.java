@@ -0,0 +1,34 @@
+package puzzle.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of expanding one level of a breadth-first search.
+ */
+@Name("puzzle.SolverLevel")
+@Label("Solver Level")
+@Category({"Puzzle", "Solver"})
+@Description("Expansion of one level of a breadth-first search")
+@Enabled
+@Threshold("1 ms")
+@StackTrace(false)
+public class SolverLevelEvent extends Event {
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Frontier Size")
+    @Description("Number of states on the level being expanded")
+    public long frontierSize;
+
+    @Label("Discovered")
+    @Description("Number of new states found on the next level")
+    public long discovered;
+}
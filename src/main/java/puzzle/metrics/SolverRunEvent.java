@@ -0,0 +1,44 @@
+package puzzle.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of a complete search over the puzzle's states.
+ */
+@Name("puzzle.SolverRun")
+@Label("Solver Run")
+@Category({"Puzzle", "Solver"})
+@Description("A complete search over the states of the puzzle")
+@Enabled
+@Threshold("10 ms")
+@StackTrace(false)
+public class SolverRunEvent extends Event {
+
+    @Label("Solver")
+    public String solver;
+
+    @Label("Board Size")
+    public int boardSize;
+
+    @Label("Coins")
+    public int coinCount;
+
+    @Label("Start Board")
+    @Description("Bitmask of the squares holding a coin where the search starts, for a backward search the squares of the solved positions")
+    public long startBoard;
+
+    @Label("Nodes")
+    @Description("Number of states expanded")
+    public long nodes;
+
+    @Label("Depth")
+    @Description("Depth reached by the search")
+    public int depth;
+}
@@ -0,0 +1,42 @@
+package puzzle.metrics;
+
+/**
+ * Histogram of durations in nanoseconds.
+ * <p>
+ * Typical use, without allocation:
+ * <pre>{@code
+ * long start = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * }</pre>
+ */
+public final class Timer extends Histogram {
+
+    Timer(String name) {
+        super(name);
+    }
+
+    /**
+     * Returns the start time of a measurement.
+     *
+     * @return the current value of {@link System#nanoTime()}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since the start of a measurement.
+     *
+     * @param start the value returned by {@link #start()}
+     * @return the elapsed time in nanoseconds
+     */
+    public long stop(long start) {
+        long elapsed = System.nanoTime() - start;
+        record(elapsed);
+        return elapsed;
+    }
+}
@@ -0,0 +1,33 @@
+package puzzle.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of handling a click on the game board.
+ */
+@Name("puzzle.UiMove")
+@Label("UI Move")
+@Category({"Puzzle", "UI"})
+@Description("Handling of a click on the game board on the JavaFX application thread")
+@Enabled
+@Threshold("16 ms")
+@StackTrace(false)
+public class UiMoveEvent extends Event {
+
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Move Made")
+    @Description("Whether the click completed a move")
+    public boolean moveMade;
+}
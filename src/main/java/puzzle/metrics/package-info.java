@@ -0,0 +1,36 @@
+/**
+ * Contains a lightweight metrics facility and Java Flight Recorder events that are cheap enough to leave enabled.
+ *
+ * <p>This package has:
+ * <ul>
+ *     <li>
+ *         {@link puzzle.metrics.Metrics}: The registry of all metrics, exposing them through JMX and periodic
+ *         snapshot files.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.Counter}: A count updated with striped adders.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.Histogram}: A distribution of values in power-of-two buckets.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.Timer}: A histogram of durations in nanoseconds.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.SolverRunEvent}: Flight recorder event of a complete search.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.SolverLevelEvent}: Flight recorder event of one level of a breadth-first search.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.ResultIoEvent}: Flight recorder event of reading or writing a results file.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.metrics.UiMoveEvent}: Flight recorder event of handling a click on the game board.
+ *     </li>
+ * </ul>
+ *
+ * <p>The events have default thresholds, so that a recording can always be running. The thresholds can be
+ * changed with the {@code puzzle.jfc} settings file found among the resources.
+ */
+package puzzle.metrics;
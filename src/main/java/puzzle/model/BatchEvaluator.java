@@ -0,0 +1,94 @@
+package puzzle.model;
+
+import org.tinylog.Logger;
+
+/**
+ * Evaluates the rules of the puzzle on many independent boards at once.
+ * <p>
+ * Boards are packed as in {@link Bitboard} and passed in arrays, so that batch workloads such as random
+ * playouts, replay verification and the grading of generated puzzles evaluate them without creating a
+ * {@link CoinState} per board. Each method handles the first {@code length} boards and writes one result per
+ * board into the output array.
+ * <p>
+ * {@link #create(Bitboard)} returns an implementation using the incubating Vector API when the module
+ * {@code jdk.incubator.vector} is present, e.g. with {@code --add-modules jdk.incubator.vector}, and a scalar
+ * implementation otherwise. Both give the same results.
+ */
+public interface BatchEvaluator {
+
+    /**
+     * Returns the best evaluator available for the specified board.
+     *
+     * @param bitboard the rules of the board
+     * @return a vectorized evaluator if the Vector API is available, a scalar one otherwise
+     */
+    static BatchEvaluator create(Bitboard bitboard) {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name, so that the scalar path never touches classes of the Vector API
+                return (BatchEvaluator) Class.forName("puzzle.model.VectorBatchEvaluator")
+                        .getConstructor(Bitboard.class)
+                        .newInstance(bitboard);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Logger.warn(e, "Vector API present but unusable, evaluating boards one by one");
+            }
+        }
+        return scalar(bitboard);
+    }
+
+    /**
+     * Returns an evaluator that evaluates the boards one at a time.
+     *
+     * @param bitboard the rules of the board
+     * @return a scalar evaluator
+     */
+    static BatchEvaluator scalar(Bitboard bitboard) {
+        return new ScalarBatchEvaluator(bitboard);
+    }
+
+    /**
+     * Returns the rules of the board evaluated.
+     *
+     * @return the rules of the board
+     */
+    Bitboard getBitboard();
+
+    /**
+     * Computes the coins that may be moved on every board, see {@link Bitboard#mobile(long)}. A coin may be
+     * moved from square {@code i} if bit {@code i} of the result is set.
+     *
+     * @param boards the boards
+     * @param mobile receives the mask of the coins that may be moved on each board
+     * @param length the number of boards
+     */
+    void mobile(long[] boards, long[] mobile, int length);
+
+    /**
+     * Computes the squares the coin on a square may be moved to on every board, see
+     * {@link Bitboard#targets(long, int)}.
+     *
+     * @param boards the boards
+     * @param from the index of the square of the coin to move on each board
+     * @param targets receives the mask of the target squares on each board, empty if the coin cannot be moved
+     * @param length the number of boards
+     */
+    void targets(long[] boards, int[] from, long[] targets, int length);
+
+    /**
+     * Checks which boards are solved, see {@link Bitboard#isSolved(long)}.
+     *
+     * @param boards the boards
+     * @param solved receives whether each board is solved
+     * @param length the number of boards
+     */
+    void solved(long[] boards, boolean[] solved, int length);
+
+    /**
+     * Checks on which boards no coin can be moved, see {@link Bitboard#isGameOver(long)}.
+     *
+     * @param boards the boards
+     * @param gameOver receives whether the game is over on each board
+     * @param length the number of boards
+     */
+    void gameOver(long[] boards, boolean[] gameOver, int length);
+}
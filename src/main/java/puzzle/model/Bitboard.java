@@ -0,0 +1,312 @@
+package puzzle.model;
+
+import java.util.Arrays;
+
+/**
+ * Implements the rules of the puzzle on boards packed into a {@code long}.
+ * <p>
+ * The squares of an n&times;n board are numbered row by row, the square in row {@code r} and column {@code c}
+ * having index {@code r * n + c}. A set of coins is a {@code long} in which bit {@code i} is set if square
+ * {@code i} holds a coin, so boards of up to 8&times;8 squares can be represented. Moves are packed into an
+ * {@code int} by {@link #packMove(int, int)}. None of the methods allocate, which makes them suitable for
+ * solvers and other code evaluating a large number of boards.
+ */
+public final class Bitboard {
+
+    /**
+     * The largest supported board size.
+     */
+    public static final int MAX_SIZE = 8;
+
+    /**
+     * The largest number of squares a coin can be moved by.
+     */
+    public static final int MAX_DISTANCE = 3;
+
+    private static final int MOVE_BITS = 6;
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final Bitboard[] BOARDS = new Bitboard[MAX_SIZE + 1];
+
+    static {
+        for (var size = 2; size <= MAX_SIZE; size++) {
+            BOARDS[size] = new Bitboard(size);
+        }
+    }
+
+    /**
+     * The 4&times;4 board of the puzzle.
+     */
+    public static final Bitboard STANDARD = of(4);
+
+    private final int size;
+    private final int cells;
+    private final long fullMask;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+    private final long corners;
+    private final int[][] rays;
+
+    private Bitboard(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.fullMask = cells == Long.SIZE ? -1L : (1L << cells) - 1;
+        long firstColumn = 0;
+        long lastColumn = 0;
+        for (var row = 0; row < size; row++) {
+            firstColumn |= 1L << index(row, 0);
+            lastColumn |= 1L << index(row, size - 1);
+        }
+        this.notFirstColumn = fullMask & ~firstColumn;
+        this.notLastColumn = fullMask & ~lastColumn;
+        this.corners = 1L << index(0, 0) | 1L << index(0, size - 1)
+                | 1L << index(size - 1, 0) | 1L << index(size - 1, size - 1);
+        this.rays = new int[cells * DIRECTIONS.length][];
+        for (var cell = 0; cell < cells; cell++) {
+            for (var d = 0; d < DIRECTIONS.length; d++) {
+                int row = row(cell);
+                int col = col(cell);
+                int length = 0;
+                int[] ray = new int[MAX_DISTANCE];
+                for (var step = 1; step <= MAX_DISTANCE; step++) {
+                    int r = row + DIRECTIONS[d][0] * step;
+                    int c = col + DIRECTIONS[d][1] * step;
+                    if (r < 0 || r >= size || c < 0 || c >= size) {
+                        break;
+                    }
+                    ray[length++] = index(r, c);
+                }
+                rays[cell * DIRECTIONS.length + d] = Arrays.copyOf(ray, length);
+            }
+        }
+    }
+
+    /**
+     * Returns the rules for a board of the specified size.
+     *
+     * @param size the number of rows and columns of the board
+     * @return the rules for the board
+     * @throws IllegalArgumentException if the size is not between 2 and {@value #MAX_SIZE}
+     */
+    public static Bitboard of(int size) {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        return BOARDS[size];
+    }
+
+    /**
+     * Returns the number of rows and columns of the board.
+     *
+     * @return the size of the board
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of squares of the board.
+     *
+     * @return the number of squares
+     */
+    public int cells() {
+        return cells;
+    }
+
+    /**
+     * Returns the index of a square.
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     * @return the index of the square
+     */
+    public int index(int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Returns the row of a square.
+     *
+     * @param index the index of the square
+     * @return the row of the square
+     */
+    public int row(int index) {
+        return index / size;
+    }
+
+    /**
+     * Returns the column of a square.
+     *
+     * @param index the index of the square
+     * @return the column of the square
+     */
+    public int col(int index) {
+        return index % size;
+    }
+
+    /**
+     * Checks if a square is on the board.
+     *
+     * @param row the row of the square
+     * @param col the column of the square
+     * @return {@code true} if the square is on the board, {@code false} otherwise
+     */
+    public boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    /**
+     * Returns the mask of all squares of the board.
+     *
+     * @return the mask of all squares
+     */
+    public long fullMask() {
+        return fullMask;
+    }
+
+    /**
+     * Returns the mask of the four corner squares.
+     *
+     * @return the mask of the corners
+     */
+    public long corners() {
+        return corners;
+    }
+
+    /**
+     * Returns the squares that are horizontally or vertically adjacent to at least one coin.
+     *
+     * @param coins the coins on the board
+     * @return the mask of the squares next to a coin
+     */
+    public long neighbours(long coins) {
+        return (coins << 1 & notFirstColumn) | (coins >>> 1 & notLastColumn)
+                | (coins << size & fullMask) | coins >>> size;
+    }
+
+    /**
+     * Returns the coins that may be moved, that is the coins adjacent to another coin.
+     *
+     * @param coins the coins on the board
+     * @return the mask of the coins that may be moved
+     */
+    public long mobile(long coins) {
+        return coins & neighbours(coins);
+    }
+
+    /**
+     * Returns the squares the coin on the specified square can be moved to.
+     *
+     * @param coins the coins on the board
+     * @param from the index of the square of the coin
+     * @return the mask of the target squares, empty if the coin cannot be moved
+     */
+    public long targets(long coins, int from) {
+        if ((mobile(coins) >>> from & 1) == 0) {
+            return 0;
+        }
+        long targets = 0;
+        int base = from * DIRECTIONS.length;
+        for (var d = 0; d < DIRECTIONS.length; d++) {
+            for (int to : rays[base + d]) {
+                if ((coins >>> to & 1) != 0) {
+                    break;
+                }
+                targets |= 1L << to;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Checks if a move is legal.
+     *
+     * @param coins the coins on the board
+     * @param from the index of the square the coin is moved from
+     * @param to the index of the square the coin is moved to
+     * @return {@code true} if the move is legal, {@code false} otherwise
+     */
+    public boolean isLegalMove(long coins, int from, int to) {
+        return from >= 0 && from < cells && to >= 0 && to < cells && (targets(coins, from) >>> to & 1) != 0;
+    }
+
+    /**
+     * Returns the board after moving a coin. The legality of the move is not checked.
+     *
+     * @param coins the coins on the board
+     * @param from the index of the square the coin is moved from
+     * @param to the index of the square the coin is moved to
+     * @return the coins after the move
+     */
+    public long move(long coins, int from, int to) {
+        return coins & ~(1L << from) | 1L << to;
+    }
+
+    /**
+     * Checks if all four corners hold a coin.
+     *
+     * @param coins the coins on the board
+     * @return {@code true} if the puzzle is solved, {@code false} otherwise
+     */
+    public boolean isSolved(long coins) {
+        return (coins & corners) == corners;
+    }
+
+    /**
+     * Checks if no coin can be moved.
+     *
+     * @param coins the coins on the board
+     * @return {@code true} if no coin is adjacent to another coin, {@code false} otherwise
+     */
+    public boolean isGameOver(long coins) {
+        return mobile(coins) == 0;
+    }
+
+    /**
+     * Writes the legal moves of a board, packed by {@link #packMove(int, int)}, into an array.
+     *
+     * @param coins the coins on the board
+     * @param moves the array receiving the moves, large enough for {@code 4 * MAX_DISTANCE} moves per coin
+     * @return the number of moves written
+     */
+    public int legalMoves(long coins, int[] moves) {
+        int count = 0;
+        for (long mobile = mobile(coins); mobile != 0; mobile &= mobile - 1) {
+            int from = Long.numberOfTrailingZeros(mobile);
+            for (long targets = targets(coins, from); targets != 0; targets &= targets - 1) {
+                moves[count++] = packMove(from, Long.numberOfTrailingZeros(targets));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Packs a move into an {@code int}.
+     *
+     * @param from the index of the square the coin is moved from
+     * @param to the index of the square the coin is moved to
+     * @return the packed move
+     */
+    public static int packMove(int from, int to) {
+        return from << MOVE_BITS | to;
+    }
+
+    /**
+     * Returns the square a packed move starts from.
+     *
+     * @param move the packed move
+     * @return the index of the square the coin is moved from
+     */
+    public static int from(int move) {
+        return move >>> MOVE_BITS;
+    }
+
+    /**
+     * Returns the square a packed move ends on.
+     *
+     * @param move the packed move
+     * @return the index of the square the coin is moved to
+     */
+    public static int to(int move) {
+        return move & ((1 << MOVE_BITS) - 1);
+    }
+}
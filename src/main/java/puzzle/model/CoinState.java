@@ -5,18 +5,33 @@ import puzzle.TwoPhaseMoveState;
 import java.util.*;
 
 import org.tinylog.Logger;
+import puzzle.metrics.Counter;
+import puzzle.metrics.Metrics;
 
 /**
  * Represents the state of the coin on the puzzle board.
  * Implements the rules of the puzzle game.
+ * <p>
+ * The coins are kept as a bitmask, see {@link Bitboard}. Listeners registered with
+ * {@link #addMoveListener(MoveListener)} are notified of every move.
  */
 public class CoinState implements TwoPhaseMoveState<Position> {
 
     private static final int BOARD_SIZE = 4;
 
-    private final Square[][] board = new Square[BOARD_SIZE][BOARD_SIZE];
+    private static final MoveListener[] NO_LISTENERS = new MoveListener[0];
 
-    private Map<CoinState, TwoPhaseMove<Position>> previousMoves = new HashMap<>();
+    private static final Counter LEGAL_MOVE_CHECKS = Metrics.counter("rules.legalMoveChecks");
+
+    private static final Counter MOVES_GENERATED = Metrics.counter("rules.movesGenerated");
+
+    private final Bitboard bitboard = Bitboard.STANDARD;
+
+    private long coins;
+
+    private MoveListener[] listeners = NO_LISTENERS;
+
+    private final MoveHistory history = new MoveHistory();
 
     /**
      * Initializes the puzzle board with coins in the center.
@@ -25,23 +40,62 @@ public class CoinState implements TwoPhaseMoveState<Position> {
         for (var i = 0; i < BOARD_SIZE; i++) {
             for (var j = 0; j < BOARD_SIZE; j++) {
                 if ((i == 1 || i == 2) && (j == 1 || j == 2)) {
-                    board[i][j] = Square.COIN;
-                } else {
-                    board[i][j] = Square.NONE;
+                    coins |= 1L << bitboard.index(i, j);
                 }
             }
         }
         Logger.info("Board initialized.");
     }
 
+    private CoinState(long coins) {
+        this.coins = coins;
+    }
+
+    /**
+     * Creates a board with coins on the squares of a bitmask, see {@link Bitboard}.
+     *
+     * @param coins the squares holding a coin.
+     * @return a new board with no moves made.
+     * @throws IllegalArgumentException if a coin is off the board.
+     */
+    public static CoinState of(long coins) {
+        if ((coins & ~Bitboard.STANDARD.fullMask()) != 0) {
+            throw new IllegalArgumentException("Coin off the board: " + Long.toBinaryString(coins));
+        }
+        return new CoinState(coins);
+    }
+
+    /**
+     * Creates a board with coins on the specified squares.
+     *
+     * @param positions the squares holding a coin.
+     * @return a new board with no moves made.
+     * @throws IllegalArgumentException if a square is off the board or given more than once.
+     */
+    public static CoinState of(Collection<Position> positions) {
+        long coins = 0;
+        for (Position position : positions) {
+            if (!Bitboard.STANDARD.isOnBoard(position.row(), position.col())) {
+                throw new IllegalArgumentException("Coin off the board: " + position);
+            }
+            long square = 1L << Bitboard.STANDARD.index(position.row(), position.col());
+            if ((coins & square) != 0) {
+                throw new IllegalArgumentException("More than one coin on " + position);
+            }
+            coins |= square;
+        }
+        return new CoinState(coins);
+    }
+
     /**
      * Retreives the square at the specified position.
      *
      * @param p position on the board.
      * @return square at the specified position.
+     * @throws IndexOutOfBoundsException if the position is not on the board.
      */
     public Square getSquare(Position p) {
-        return board[p.row()][p.col()];
+        return (coins >>> index(p) & 1) != 0 ? Square.COIN : Square.NONE;
     }
 
     /**
@@ -49,10 +103,90 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      *
      * @param p position on the board.
      * @param square cell of the board at the specified position.
+     * @throws IndexOutOfBoundsException if the position is not on the board.
      */
     public void setSquare(Position p, Square square) {
-        board[p.row()][p.col()] = square;
-        Logger.debug("Board updated from " + p + " to " + square);
+        long bit = 1L << index(p);
+        coins = square == Square.COIN ? coins | bit : coins & ~bit;
+        Logger.debug("Board updated from {} to {}", p, square);
+    }
+
+    /**
+     * Returns the coins on the board as a bitmask, see {@link Bitboard}.
+     *
+     * @return the bitmask of the squares holding a coin.
+     */
+    public long getCoins() {
+        return coins;
+    }
+
+    /**
+     * Returns the rules of the board in packed form.
+     *
+     * @return the {@link Bitboard} of this board.
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Registers a listener notified after every move.
+     *
+     * @param listener the listener to add.
+     */
+    public void addMoveListener(MoveListener listener) {
+        Objects.requireNonNull(listener);
+        MoveListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    /**
+     * Removes a listener registered with {@link #addMoveListener(MoveListener)}.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeMoveListener(MoveListener listener) {
+        for (var i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                MoveListener[] copy = new MoveListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+                listeners = copy.length == 0 ? NO_LISTENERS : copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of a move.
+     *
+     * @param from the index of the square the coin was moved from.
+     * @param to the index of the square the coin was moved to.
+     */
+    private void fireMoved(int from, int to) {
+        MoveListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        long mobility = bitboard.mobile(coins);
+        for (MoveListener listener : current) {
+            listener.moved(from, to, mobility);
+        }
+    }
+
+    /**
+     * Returns the bitboard index of a position.
+     *
+     * @param p position on the board.
+     * @return the index of the square.
+     * @throws IndexOutOfBoundsException if the position is not on the board.
+     */
+    private int index(Position p) {
+        if (!isOnBoard(p)) {
+            throw new IndexOutOfBoundsException("Position is not on the board: " + p);
+        }
+        return bitboard.index(p.row(), p.col());
     }
 
     /**
@@ -72,10 +206,7 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      * @return {@code true} if the position is adjacent coin, {@code false} otherwise.
      */
     private boolean hasAdjacentCoin(Position p) {
-        boolean isAdjacent = (isOnBoard(new Position(p.row() + 1, p.col())) && getSquare(new Position(p.row() + 1, p.col())) == Square.COIN) ||
-                (isOnBoard(new Position(p.row() - 1, p.col())) && getSquare(new Position(p.row() - 1, p.col())) == Square.COIN) ||
-                (isOnBoard(new Position(p.row(), p.col() + 1)) && getSquare(new Position(p.row(), p.col() + 1)) == Square.COIN) ||
-                (isOnBoard(new Position(p.row(), p.col() - 1)) && getSquare(new Position(p.row(), p.col() - 1)) == Square.COIN);
+        boolean isAdjacent = (bitboard.neighbours(coins) >>> index(p) & 1) != 0;
         Logger.debug("Coin {} has adjacent coin: {}", p, isAdjacent);
         return isAdjacent;
     }
@@ -87,8 +218,7 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      * @return {@code true} if a coin is on the board, {@code false} otherwise.
      */
     public boolean isOnBoard(Position position) {
-        return position.row() >= 0 && position.row() < BOARD_SIZE &&
-                position.col() >= 0 && position.col() < BOARD_SIZE;
+        return bitboard.isOnBoard(position.row(), position.col());
     }
 
     /**
@@ -102,7 +232,7 @@ public class CoinState implements TwoPhaseMoveState<Position> {
         sb.append('\n');
         for (var i = 0; i < BOARD_SIZE; i++) {
             for (var j = 0; j < BOARD_SIZE; j++) {
-                sb.append(board[i][j].ordinal()).append(' ');
+                sb.append(coins >>> bitboard.index(i, j) & 1).append(' ');
             }
             sb.append('\n');
         }
@@ -117,8 +247,8 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public boolean isLegalToMoveFrom(Position position) {
-        boolean isLegal = isOnBoard(position) && !isEmpty(position) && hasAdjacentCoin(position);
-        Logger.debug("It is legal to move from {}", position);
+        boolean isLegal = isOnBoard(position) && (bitboard.mobile(coins) >>> index(position) & 1) != 0;
+        Logger.trace("It is legal to move from {}: {}", position, isLegal);
         return isLegal;
     }
 
@@ -129,11 +259,8 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public boolean isSolved() {
-        boolean solution = getSquare(new Position(0, 0)) == Square.COIN &&
-                getSquare(new Position(0, 3)) == Square.COIN &&
-                getSquare(new Position(3, 0)) == Square.COIN &&
-                getSquare(new Position(3, 3)) == Square.COIN;
-        Logger.info("Puzzle is solved: {}", solution);
+        boolean solution = bitboard.isSolved(coins);
+        Logger.debug("Puzzle is solved: {}", solution);
         return solution;
     }
 
@@ -145,35 +272,16 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public boolean isLegalMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
+        LEGAL_MOVE_CHECKS.increment();
         Position from = positionTwoPhaseMove.from();
         Position to = positionTwoPhaseMove.to();
 
-        if (!isOnBoard(from) || !isOnBoard(to) || isEmpty(from) || !isEmpty(to) || !hasAdjacentCoin(from)) {
+        if (!isOnBoard(from) || !isOnBoard(to) || !bitboard.isLegalMove(coins, index(from), index(to))) {
             Logger.warn("Move {} is illegal", positionTwoPhaseMove);
             return false;
         }
-
-        int rowDifference = Math.abs(from.row() - to.row());
-        int colDifference = Math.abs(from.col() - to.col());
-
-        if ((rowDifference == 0 && colDifference >= 1 && colDifference <= 3) || (colDifference == 0 && rowDifference >= 1 && rowDifference <= 3)) {
-            int rowStep = Integer.compare(to.row(), from.row());
-            int colStep = Integer.compare(to.col(), from.col());
-
-            for (int i = 1; i < Math.max(rowDifference, colDifference); i++) {
-                int row = from.row() + i * rowStep;
-                int col = from.col() + i * colStep;
-                if (!isEmpty(new Position(row, col))) {
-                    Logger.warn("This move is illegal: {}", positionTwoPhaseMove);
-                    return false;
-                }
-            }
-            Logger.debug("Move is legal: {}", positionTwoPhaseMove);
-            return true;
-        }
-
-        Logger.warn("Move is invalid: {}", positionTwoPhaseMove);
-        return false;
+        Logger.trace("Move is legal: {}", positionTwoPhaseMove);
+        return true;
     }
 
 
@@ -183,14 +291,8 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      * @return {@code true} if there were no legal moves left for each position, {@code false} otherwise.
      */
     public boolean isGameOver() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Position from = new Position(i, j);
-                if (isLegalToMoveFrom(from)) {
-                    Logger.warn("Move {} is illegal. You did not solve puzzle", from);
-                    return false;
-                }
-            }
+        if (!bitboard.isGameOver(coins)) {
+            return false;
         }
         Logger.info("Game is over");
         return true;
@@ -206,50 +308,72 @@ public class CoinState implements TwoPhaseMoveState<Position> {
         Position from = positionTwoPhaseMove.from();
         Position to = positionTwoPhaseMove.to();
         if (isLegalMove(positionTwoPhaseMove)) {
-            setSquare(to, Square.COIN);
-            setSquare(from, Square.NONE);
-            previousMoves.put((CoinState) this.clone(), positionTwoPhaseMove);
+            int fromIndex = index(from);
+            int toIndex = index(to);
+            coins = bitboard.move(coins, fromIndex, toIndex);
+            history.record(Bitboard.packMove(fromIndex, toIndex));
             Logger.info("Made move from {} to {}", from, to);
+            fireMoved(fromIndex, toIndex);
         }
     }
 
     /**
-     * Retrieves the set of possible legal moves.
+     * Returns the history of the moves made on this board.
      *
-     * @return set of legal moves.
+     * @return the history of moves.
      */
-    @Override
-    public Set<TwoPhaseMove<Position>> getLegalMoves() {
-        Set<TwoPhaseMove<Position>> legalMoves = new HashSet<>();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                Position from = new Position(i, j);
-                if (isLegalToMoveFrom(from)) {
-                    addMovesToSet(legalMoves, from, 0, 1);
-                    addMovesToSet(legalMoves, from, 1, 0);
-                    addMovesToSet(legalMoves, from, -1, 0);
-                    addMovesToSet(legalMoves, from, 0, -1);
-                }
-            }
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Takes back the last move made. Listeners are notified as if the coin was moved back.
+     *
+     * @return {@code true} if a move was taken back, {@code false} if there was no move to undo.
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
         }
-        return legalMoves;
+        int move = history.undo();
+        coins = bitboard.move(coins, Bitboard.to(move), Bitboard.from(move));
+        Logger.info("Undid move {}", history.getPosition() + 1);
+        fireMoved(Bitboard.to(move), Bitboard.from(move));
+        return true;
     }
 
     /**
-     * Adds possible legal moves to the set from specified position with given increments.
+     * Makes the last move taken back by {@link #undo()} again.
      *
-     * @param legalMoves set of legal moves.
-     * @param from position from which move will be executed.
-     * @param rowIncr the row increment for the move.
-     * @param colIncr the column increment for the move.
+     * @return {@code true} if a move was made again, {@code false} if there was no move to redo.
      */
-    private void addMovesToSet(Set<TwoPhaseMove<Position>> legalMoves, Position from, int rowIncr, int colIncr) {
-        for (int i = 1; i < 4; i++) {
-            Position to = new Position(from.row() + rowIncr * i, from.col() + colIncr * i);
-            if (isOnBoard(to) && isLegalMove(new TwoPhaseMove<>(from, to))) {
-                legalMoves.add(new TwoPhaseMove<>(from, to));
+    public boolean redo() {
+        if (!history.canRedo()) {
+            return false;
+        }
+        int move = history.redo();
+        coins = bitboard.move(coins, Bitboard.from(move), Bitboard.to(move));
+        Logger.info("Redid move {}", history.getPosition());
+        fireMoved(Bitboard.from(move), Bitboard.to(move));
+        return true;
+    }
+
+    /**
+     * Retrieves the set of possible legal moves.
+     *
+     * @return set of legal moves.
+     */
+    @Override
+    public Set<TwoPhaseMove<Position>> getLegalMoves() {
+        Set<TwoPhaseMove<Position>> legalMoves = new HashSet<>();
+        for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+            int from = Long.numberOfTrailingZeros(mobile);
+            for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                legalMoves.add(TwoPhaseMoves.of(bitboard, from, Long.numberOfTrailingZeros(targets)));
             }
         }
+        MOVES_GENERATED.add(legalMoves.size());
+        return legalMoves;
     }
 
     /**
@@ -263,25 +387,17 @@ public class CoinState implements TwoPhaseMoveState<Position> {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof CoinState other)) return false;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (!board[i][j].equals(other.board[i][j])) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return coins == other.coins;
     }
 
     /**
-     * Generates a hash code based on the hash codes of the individual
-     * squares in the board.
+     * Generates a hash code based on the squares holding a coin.
      *
      * @return the hash code.
      */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(this.board);
+        return Long.hashCode(coins);
     }
 
     /**
@@ -291,13 +407,7 @@ public class CoinState implements TwoPhaseMoveState<Position> {
      */
     @Override
     public TwoPhaseMoveState<Position> clone() {
-        CoinState clone = new CoinState();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                clone.setSquare(new Position(i, j), getSquare(new Position(i, j)));
-            }
-        }
-        return clone;
+        return new CoinState(coins);
     }
 
     /**
@@ -0,0 +1,304 @@
+package puzzle.model;
+
+import org.tinylog.Logger;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Represents the state of the harder variant of the puzzle, in which the coins are distinguishable and every
+ * coin has to reach a corner of its own.
+ * <p>
+ * The coins are labelled {@code 0} to {@code 3}. They move by the same rules as in {@link CoinState}, which do
+ * not depend on the labels; only the goal does: the puzzle is solved when every coin is on the corner assigned
+ * to it, not merely when every corner holds a coin. {@link #getSquare(Position)} still reports a plain
+ * {@link Square#COIN}, {@link #getCoin(Position)} tells which coin it is.
+ */
+public class LabelledCoinState implements TwoPhaseMoveState<Position> {
+
+    /**
+     * The number of coins, one per corner.
+     */
+    public static final int COIN_COUNT = 4;
+
+    /**
+     * Returned by {@link #getCoin(Position)} for an empty square.
+     */
+    public static final int NO_COIN = -1;
+
+    private final Bitboard bitboard;
+
+    private final int[] goals;
+
+    private final int[] squares;
+
+    private long coins;
+
+    /**
+     * Initializes the standard board with the coins in the center, every coin having to reach the corner
+     * diagonally opposite to it. The coins are labelled row by row.
+     */
+    public LabelledCoinState() {
+        this(Bitboard.STANDARD, new int[]{5, 6, 9, 10}, new int[]{15, 12, 3, 0});
+        Logger.info("Labelled board initialized.");
+    }
+
+    private LabelledCoinState(Bitboard bitboard, int[] squares, int[] goals) {
+        this.bitboard = bitboard;
+        this.squares = squares;
+        this.goals = goals;
+        for (int square : squares) {
+            coins |= 1L << square;
+        }
+    }
+
+    /**
+     * Creates a board with the specified coins and goals.
+     *
+     * @param bitboard the rules of the board
+     * @param squares the index of the square of every coin, by label
+     * @param goals the index of the corner every coin has to reach, by label
+     * @return a new board
+     * @throws IllegalArgumentException if there are not four coins, a coin is off the board or shares a square,
+     * or the goals are not the four corners
+     */
+    public static LabelledCoinState of(Bitboard bitboard, int[] squares, int[] goals) {
+        if (squares.length != COIN_COUNT || goals.length != COIN_COUNT) {
+            throw new IllegalArgumentException("Expected " + COIN_COUNT + " coins and goals");
+        }
+        long occupied = 0;
+        long corners = 0;
+        for (var i = 0; i < COIN_COUNT; i++) {
+            if (squares[i] < 0 || squares[i] >= bitboard.cells() || (occupied >>> squares[i] & 1) != 0) {
+                throw new IllegalArgumentException("Invalid square of coin " + i + ": " + squares[i]);
+            }
+            occupied |= 1L << squares[i];
+            if (goals[i] < 0 || goals[i] >= bitboard.cells()) {
+                throw new IllegalArgumentException("Invalid goal of coin " + i + ": " + goals[i]);
+            }
+            corners |= 1L << goals[i];
+        }
+        if (corners != bitboard.corners()) {
+            throw new IllegalArgumentException("The goals are not the four corners: " + Arrays.toString(goals));
+        }
+        return new LabelledCoinState(bitboard, squares.clone(), goals.clone());
+    }
+
+    /**
+     * Returns the rules of the board in packed form.
+     *
+     * @return the {@link Bitboard} of this board
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Returns the coins on the board as a bitmask, regardless of their labels, see {@link Bitboard}.
+     *
+     * @return the bitmask of the squares holding a coin
+     */
+    public long getCoins() {
+        return coins;
+    }
+
+    /**
+     * Returns the squares of the coins.
+     *
+     * @return a new array with the index of the square of every coin, by label
+     */
+    public int[] getSquares() {
+        return squares.clone();
+    }
+
+    /**
+     * Returns the corners the coins have to reach.
+     *
+     * @return a new array with the index of the goal of every coin, by label
+     */
+    public int[] getGoals() {
+        return goals.clone();
+    }
+
+    /**
+     * Returns the corner a coin has to reach.
+     *
+     * @param coin the label of the coin
+     * @return the position of its goal
+     * @throws IndexOutOfBoundsException if there is no coin with the label
+     */
+    public Position getGoal(int coin) {
+        return toPosition(goals[coin]);
+    }
+
+    /**
+     * Returns the coin on a square.
+     *
+     * @param p position on the board
+     * @return the label of the coin, or {@link #NO_COIN} if the square is empty
+     * @throws IndexOutOfBoundsException if the position is not on the board
+     */
+    public int getCoin(Position p) {
+        int index = index(p);
+        for (var i = 0; i < COIN_COUNT; i++) {
+            if (squares[i] == index) {
+                return i;
+            }
+        }
+        return NO_COIN;
+    }
+
+    /**
+     * Retrieves the square at the specified position.
+     *
+     * @param p position on the board
+     * @return {@link Square#COIN} if any coin is on the square, {@link Square#NONE} otherwise
+     * @throws IndexOutOfBoundsException if the position is not on the board
+     */
+    public Square getSquare(Position p) {
+        return (coins >>> index(p) & 1) != 0 ? Square.COIN : Square.NONE;
+    }
+
+    /**
+     * Checks if position is on the board or not.
+     *
+     * @param position the position on the board
+     * @return {@code true} if the position is on the board, {@code false} otherwise
+     */
+    public boolean isOnBoard(Position position) {
+        return bitboard.isOnBoard(position.row(), position.col());
+    }
+
+    private int index(Position p) {
+        if (!isOnBoard(p)) {
+            throw new IndexOutOfBoundsException("Position is not on the board: " + p);
+        }
+        return bitboard.index(p.row(), p.col());
+    }
+
+    private Position toPosition(int index) {
+        return Position.of(bitboard, index);
+    }
+
+    /**
+     * Checks if the coin on the specified position may be moved.
+     *
+     * @param position the position on the board
+     * @return {@code true} if a coin is on the position and is adjacent to another coin, {@code false} otherwise
+     */
+    @Override
+    public boolean isLegalToMoveFrom(Position position) {
+        return isOnBoard(position) && (bitboard.mobile(coins) >>> index(position) & 1) != 0;
+    }
+
+    /**
+     * Checks if every coin is on its own corner.
+     *
+     * @return {@code true} if the puzzle is solved, {@code false} otherwise
+     */
+    @Override
+    public boolean isSolved() {
+        boolean solution = Arrays.equals(squares, goals);
+        Logger.debug("Labelled puzzle is solved: {}", solution);
+        return solution;
+    }
+
+    /**
+     * Checks if no coin can be moved.
+     *
+     * @return {@code true} if no coin is adjacent to another coin, {@code false} otherwise
+     */
+    public boolean isGameOver() {
+        return bitboard.isGameOver(coins);
+    }
+
+    /**
+     * Checks if a move is legal.
+     *
+     * @param move the move to check
+     * @return {@code true} if the move is legal, {@code false} otherwise
+     */
+    @Override
+    public boolean isLegalMove(TwoPhaseMove<Position> move) {
+        return isOnBoard(move.from()) && isOnBoard(move.to())
+                && bitboard.isLegalMove(coins, index(move.from()), index(move.to()));
+    }
+
+    /**
+     * Makes a move if it is legal; the coin keeps its label.
+     *
+     * @param move the move to make
+     */
+    @Override
+    public void makeMove(TwoPhaseMove<Position> move) {
+        if (!isLegalMove(move)) {
+            Logger.warn("Move {} is illegal", move);
+            return;
+        }
+        int coin = getCoin(move.from());
+        int to = index(move.to());
+        coins = bitboard.move(coins, squares[coin], to);
+        squares[coin] = to;
+        Logger.info("Moved coin {} from {} to {}", coin, move.from(), move.to());
+    }
+
+    /**
+     * Retrieves the set of possible legal moves.
+     *
+     * @return set of legal moves
+     */
+    @Override
+    public Set<TwoPhaseMove<Position>> getLegalMoves() {
+        Set<TwoPhaseMove<Position>> legalMoves = new HashSet<>();
+        for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+            int from = Long.numberOfTrailingZeros(mobile);
+            for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                legalMoves.add(TwoPhaseMoves.of(bitboard, from, Long.numberOfTrailingZeros(targets)));
+            }
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Returns a string representation of the board, with the label of every coin and {@code .} for empty squares.
+     *
+     * @return a representation of the board
+     */
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        sb.append('\n');
+        for (var i = 0; i < bitboard.size(); i++) {
+            for (var j = 0; j < bitboard.size(); j++) {
+                int coin = getCoin(Position.of(i, j));
+                sb.append(coin == NO_COIN ? "." : String.valueOf(coin)).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LabelledCoinState other)) return false;
+        return bitboard == other.bitboard && Arrays.equals(squares, other.squares) && Arrays.equals(goals, other.goals);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(squares) + Arrays.hashCode(goals);
+    }
+
+    /**
+     * Creates and returns a copy of the board.
+     *
+     * @return a new board with the same coins and goals
+     */
+    @Override
+    public LabelledCoinState clone() {
+        return new LabelledCoinState(bitboard, squares.clone(), goals);
+    }
+}
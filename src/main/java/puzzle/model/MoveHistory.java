@@ -0,0 +1,129 @@
+package puzzle.model;
+
+import java.util.Arrays;
+
+/**
+ * Unbounded history of the moves made on a board, supporting undo and redo.
+ * <p>
+ * Moves are stored packed by {@link Bitboard#packMove(int, int)} in a {@code char} array, so the history
+ * takes two bytes per move and never copies boards. Recording a move after an undo discards the moves
+ * that could have been redone.
+ */
+public class MoveHistory {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private char[] moves = new char[INITIAL_CAPACITY];
+    private int size;
+    private int position;
+
+    /**
+     * Returns the number of moves made, that is the number of moves that can be undone.
+     *
+     * @return the number of moves made
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of moves recorded, including those that have been undone.
+     *
+     * @return the number of moves recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a recorded move.
+     *
+     * @param index the index of the move, starting from the first move of the game
+     * @return the move packed by {@link Bitboard#packMove(int, int)}
+     * @throws IndexOutOfBoundsException if there is no move with the index
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Checks if there is a move to undo.
+     *
+     * @return {@code true} if a move can be undone, {@code false} otherwise
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Checks if there is an undone move to redo.
+     *
+     * @return {@code true} if a move can be redone, {@code false} otherwise
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Returns the moves made so far, in the order they were made.
+     *
+     * @return the packed moves made
+     */
+    public int[] toArray() {
+        int[] result = new int[position];
+        for (var i = 0; i < position; i++) {
+            result[i] = moves[i];
+        }
+        return result;
+    }
+
+    /**
+     * Records a move made, discarding the moves that could have been redone.
+     *
+     * @param move the packed move
+     */
+    void record(int move) {
+        if (position == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[position++] = (char) move;
+        size = position;
+    }
+
+    /**
+     * Steps back one move.
+     *
+     * @return the packed move to undo
+     * @throws IllegalStateException if there is no move to undo
+     */
+    int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        return moves[--position];
+    }
+
+    /**
+     * Steps forward one move.
+     *
+     * @return the packed move to redo
+     * @throws IllegalStateException if there is no move to redo
+     */
+    int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No move to redo");
+        }
+        return moves[position++];
+    }
+
+    /**
+     * Removes all moves.
+     */
+    void clear() {
+        size = 0;
+        position = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package puzzle.model;
+
+/**
+ * Listener notified whenever a coin is moved on a {@link CoinState}.
+ * <p>
+ * Squares are identified by their {@link Bitboard} index, so delivering an event does not allocate.
+ * Listeners are called on the thread that moved the coin and should return quickly.
+ */
+@FunctionalInterface
+public interface MoveListener {
+
+    /**
+     * Called after a coin has been moved.
+     *
+     * @param from the index of the square the coin was moved from
+     * @param to the index of the square the coin was moved to
+     * @param mobility the mask of the coins that may be moved after the move
+     */
+    void moved(int from, int to, long mobility);
+}
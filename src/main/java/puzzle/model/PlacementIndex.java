@@ -0,0 +1,114 @@
+package puzzle.model;
+
+/**
+ * Numbers the placements of a fixed number of coins on a board densely from zero, so that tables over
+ * placements can be plain arrays.
+ * <p>
+ * A placement of {@code k} coins on {@code n} squares is a {@code k}-subset of the squares; there are
+ * {@code C(n, k)} of them, far fewer than the {@code 2^n} values of a packed board, e.g. 1,820 instead of
+ * 65,536 for four coins on the 4&times;4 board. The rank of a placement is its position in the combinatorial
+ * number system: with the squares holding coins {@code c1 < c2 < ... < ck}, the rank is
+ * {@code C(c1, 1) + C(c2, 2) + ... + C(ck, k)}. Ranks follow the numeric order of the packed boards.
+ */
+public final class PlacementIndex {
+
+    private final int cells;
+    private final int coinCount;
+    private final long[][] binomials;
+    private final long size;
+
+    private PlacementIndex(int cells, int coinCount) {
+        this.cells = cells;
+        this.coinCount = coinCount;
+        binomials = new long[cells + 1][coinCount + 1];
+        for (var n = 0; n <= cells; n++) {
+            binomials[n][0] = 1;
+            for (var k = 1; k <= Math.min(n, coinCount); k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+        size = binomials[cells][coinCount];
+    }
+
+    /**
+     * Returns the index of the placements of the specified number of coins on a board.
+     *
+     * @param bitboard the rules of the board
+     * @param coinCount the number of coins
+     * @return the index
+     * @throws IllegalArgumentException if the number of coins is negative or exceeds the number of squares
+     */
+    public static PlacementIndex of(Bitboard bitboard, int coinCount) {
+        if (coinCount < 0 || coinCount > bitboard.cells()) {
+            throw new IllegalArgumentException("Invalid number of coins: " + coinCount);
+        }
+        return new PlacementIndex(bitboard.cells(), coinCount);
+    }
+
+    /**
+     * Returns the number of coins of the placements.
+     *
+     * @return the number of coins
+     */
+    public int coinCount() {
+        return coinCount;
+    }
+
+    /**
+     * Returns the number of placements.
+     *
+     * @return the number of placements, one more than the largest rank
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Checks if a packed board is a placement of this index.
+     *
+     * @param coins the coins on the board
+     * @return {@code true} if the board has the right number of coins, all on the board
+     */
+    public boolean contains(long coins) {
+        return Long.bitCount(coins) == coinCount && (cells == Long.SIZE || coins >>> cells == 0);
+    }
+
+    /**
+     * Returns the rank of a placement. The number of coins is not checked, see {@link #contains(long)}.
+     *
+     * @param coins the coins on the board
+     * @return the rank, between zero and {@link #size()} minus one
+     */
+    public long rank(long coins) {
+        long rank = 0;
+        for (var k = 1; coins != 0; k++, coins &= coins - 1) {
+            rank += binomials[Long.numberOfTrailingZeros(coins)][k];
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the placement of a rank.
+     *
+     * @param rank the rank, between zero and {@link #size()} minus one
+     * @return the coins on the board
+     * @throws IndexOutOfBoundsException if the rank is out of range
+     */
+    public long unrank(long rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank out of range: " + rank);
+        }
+        long coins = 0;
+        int cell = cells - 1;
+        for (var k = coinCount; k > 0; k--) {
+            // The largest square whose binomial does not exceed what is left of the rank
+            while (binomials[cell][k] > rank) {
+                cell--;
+            }
+            coins |= 1L << cell;
+            rank -= binomials[cell][k];
+            cell--;
+        }
+        return coins;
+    }
+}
@@ -2,11 +2,50 @@ package puzzle.model;
 
 /**
  * Represents a position of the coin on a puzzle board.
+ * <p>
+ * The positions of the squares of the largest board, see {@link Bitboard#MAX_SIZE}, are interned:
+ * {@link #of(int, int)} returns the same instance for the same square, so callers of the object API do not
+ * allocate a position per query. Positions keep value semantics, so instances created with the constructor
+ * are still equal to the interned ones.
  *
  * @param row represents a row index
  * @param col represents a column index
  */
 public record Position(int row, int col) {
+
+    private static final Position[] POSITIONS = new Position[Bitboard.MAX_SIZE * Bitboard.MAX_SIZE];
+
+    static {
+        for (var i = 0; i < POSITIONS.length; i++) {
+            POSITIONS[i] = new Position(i / Bitboard.MAX_SIZE, i % Bitboard.MAX_SIZE);
+        }
+    }
+
+    /**
+     * Returns the position of a square, interned if the square is on the largest board.
+     *
+     * @param row represents a row index
+     * @param col represents a column index
+     * @return the canonical position, or a new one for a square off the largest board
+     */
+    public static Position of(int row, int col) {
+        if (row < 0 || row >= Bitboard.MAX_SIZE || col < 0 || col >= Bitboard.MAX_SIZE) {
+            return new Position(row, col);
+        }
+        return POSITIONS[row * Bitboard.MAX_SIZE + col];
+    }
+
+    /**
+     * Returns the position of a square of a board.
+     *
+     * @param bitboard the rules of the board
+     * @param index the index of the square
+     * @return the canonical position
+     */
+    public static Position of(Bitboard bitboard, int index) {
+        return of(bitboard.row(index), bitboard.col(index));
+    }
+
     /**
      * Returns a string representation of the coin position.
      *
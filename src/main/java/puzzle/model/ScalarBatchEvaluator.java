@@ -0,0 +1,46 @@
+package puzzle.model;
+
+/**
+ * Evaluates boards one at a time with the methods of {@link Bitboard}, for runtimes without the Vector API.
+ */
+final class ScalarBatchEvaluator implements BatchEvaluator {
+
+    private final Bitboard bitboard;
+
+    ScalarBatchEvaluator(Bitboard bitboard) {
+        this.bitboard = bitboard;
+    }
+
+    @Override
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    @Override
+    public void mobile(long[] boards, long[] mobile, int length) {
+        for (var i = 0; i < length; i++) {
+            mobile[i] = bitboard.mobile(boards[i]);
+        }
+    }
+
+    @Override
+    public void targets(long[] boards, int[] from, long[] targets, int length) {
+        for (var i = 0; i < length; i++) {
+            targets[i] = bitboard.targets(boards[i], from[i]);
+        }
+    }
+
+    @Override
+    public void solved(long[] boards, boolean[] solved, int length) {
+        for (var i = 0; i < length; i++) {
+            solved[i] = bitboard.isSolved(boards[i]);
+        }
+    }
+
+    @Override
+    public void gameOver(long[] boards, boolean[] gameOver, int length) {
+        for (var i = 0; i < length; i++) {
+            gameOver[i] = bitboard.isGameOver(boards[i]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package puzzle.model;
+
+import puzzle.TwoPhaseMoveState.TwoPhaseMove;
+
+/**
+ * Canonical instances of the moves between the squares of the largest board, see {@link Bitboard#MAX_SIZE}.
+ * <p>
+ * A move between interned positions, see {@link Position#of(int, int)}, is created once and then shared, so
+ * generating and checking moves through the object API does not allocate. Moves keep value semantics.
+ */
+public final class TwoPhaseMoves {
+
+    private static final int SQUARES = Bitboard.MAX_SIZE * Bitboard.MAX_SIZE;
+
+    private static final TwoPhaseMove<Position>[] MOVES = createMoves();
+
+    private TwoPhaseMoves() {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TwoPhaseMove<Position>[] createMoves() {
+        TwoPhaseMove<Position>[] moves = new TwoPhaseMove[SQUARES * SQUARES];
+        for (var from = 0; from < SQUARES; from++) {
+            for (var to = 0; to < SQUARES; to++) {
+                moves[from * SQUARES + to] = new TwoPhaseMove<>(
+                        Position.of(from / Bitboard.MAX_SIZE, from % Bitboard.MAX_SIZE),
+                        Position.of(to / Bitboard.MAX_SIZE, to % Bitboard.MAX_SIZE));
+            }
+        }
+        return moves;
+    }
+
+    private static int square(Position p) {
+        if (p.row() < 0 || p.row() >= Bitboard.MAX_SIZE || p.col() < 0 || p.col() >= Bitboard.MAX_SIZE) {
+            return -1;
+        }
+        return p.row() * Bitboard.MAX_SIZE + p.col();
+    }
+
+    /**
+     * Returns the move between two positions.
+     *
+     * @param from the position the coin is moved from
+     * @param to the position the coin is moved to
+     * @return the canonical move, or a new one if a position is off the largest board
+     */
+    public static TwoPhaseMove<Position> of(Position from, Position to) {
+        int fromSquare = square(from);
+        int toSquare = square(to);
+        if (fromSquare < 0 || toSquare < 0) {
+            return new TwoPhaseMove<>(from, to);
+        }
+        return MOVES[fromSquare * SQUARES + toSquare];
+    }
+
+    /**
+     * Returns the move between two squares of a board.
+     *
+     * @param bitboard the rules of the board
+     * @param from the index of the square the coin is moved from
+     * @param to the index of the square the coin is moved to
+     * @return the canonical move
+     */
+    public static TwoPhaseMove<Position> of(Bitboard bitboard, int from, int to) {
+        return of(Position.of(bitboard, from), Position.of(bitboard, to));
+    }
+
+    /**
+     * Returns a move packed by {@link Bitboard#packMove(int, int)}.
+     *
+     * @param bitboard the rules of the board
+     * @param move the packed move
+     * @return the canonical move
+     */
+    public static TwoPhaseMove<Position> of(Bitboard bitboard, int move) {
+        return of(bitboard, Bitboard.from(move), Bitboard.to(move));
+    }
+}
@@ -0,0 +1,138 @@
+package puzzle.model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluates boards in lanes of the widest vector the CPU supports, with the incubating Vector API.
+ * <p>
+ * The rules are expressed as shifts and masks of whole boards, as in {@link Bitboard#neighbours(long)}, so
+ * every lane runs the same instructions without branching. The targets of a coin are found by sliding it one
+ * square at a time in each direction over the empty squares; a coin that cannot be moved is cleared first and
+ * slides nowhere. Boards left over after the last full vector are evaluated by {@link Bitboard}.
+ * <p>
+ * Only loaded by {@link BatchEvaluator#create(Bitboard)}, so that the rest of the application runs without the
+ * module {@code jdk.incubator.vector}.
+ */
+final class VectorBatchEvaluator implements BatchEvaluator {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    // Square indices are loaded from an int[] with as many lanes as there are longs
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    private final Bitboard bitboard;
+    private final int size;
+    private final long fullMask;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+    private final long corners;
+
+    /**
+     * Creates an evaluator of the specified board.
+     *
+     * @param bitboard the rules of the board
+     */
+    public VectorBatchEvaluator(Bitboard bitboard) {
+        this.bitboard = bitboard;
+        this.size = bitboard.size();
+        this.fullMask = bitboard.fullMask();
+        long firstColumn = 0;
+        long lastColumn = 0;
+        for (var row = 0; row < size; row++) {
+            firstColumn |= 1L << bitboard.index(row, 0);
+            lastColumn |= 1L << bitboard.index(row, size - 1);
+        }
+        this.notFirstColumn = fullMask & ~firstColumn;
+        this.notLastColumn = fullMask & ~lastColumn;
+        this.corners = bitboard.corners();
+    }
+
+    @Override
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    private LongVector neighbours(LongVector coins) {
+        return coins.lanewise(VectorOperators.LSHL, 1).and(notFirstColumn)
+                .or(coins.lanewise(VectorOperators.LSHR, 1).and(notLastColumn))
+                .or(coins.lanewise(VectorOperators.LSHL, size).and(fullMask))
+                .or(coins.lanewise(VectorOperators.LSHR, size));
+    }
+
+    private LongVector mobile(LongVector coins) {
+        return coins.and(neighbours(coins));
+    }
+
+    @Override
+    public void mobile(long[] boards, long[] mobile, int length) {
+        int bound = LONGS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            mobile(LongVector.fromArray(LONGS, boards, i)).intoArray(mobile, i);
+        }
+        for (; i < length; i++) {
+            mobile[i] = bitboard.mobile(boards[i]);
+        }
+    }
+
+    @Override
+    public void targets(long[] boards, int[] from, long[] targets, int length) {
+        int bound = LONGS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            var coins = LongVector.fromArray(LONGS, boards, i);
+            var squares = (LongVector) IntVector.fromArray(INTS, from, i).convertShape(VectorOperators.I2L, LONGS, 0);
+            var coin = LongVector.broadcast(LONGS, 1).lanewise(VectorOperators.LSHL, squares).and(mobile(coins));
+            var empty = coins.not().and(fullMask);
+            var up = coin;
+            var down = coin;
+            var left = coin;
+            var right = coin;
+            var result = LongVector.zero(LONGS);
+            for (var step = 0; step < Bitboard.MAX_DISTANCE; step++) {
+                up = up.lanewise(VectorOperators.LSHR, size).and(empty);
+                down = down.lanewise(VectorOperators.LSHL, size).and(empty);
+                left = left.lanewise(VectorOperators.LSHR, 1).and(notLastColumn).and(empty);
+                right = right.lanewise(VectorOperators.LSHL, 1).and(notFirstColumn).and(empty);
+                result = result.or(up).or(down).or(left).or(right);
+            }
+            result.intoArray(targets, i);
+        }
+        for (; i < length; i++) {
+            targets[i] = bitboard.targets(boards[i], from[i]);
+        }
+    }
+
+    @Override
+    public void solved(long[] boards, boolean[] solved, int length) {
+        int bound = LONGS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            LongVector.fromArray(LONGS, boards, i).and(corners)
+                    .compare(VectorOperators.EQ, corners)
+                    .intoArray(solved, i);
+        }
+        for (; i < length; i++) {
+            solved[i] = bitboard.isSolved(boards[i]);
+        }
+    }
+
+    @Override
+    public void gameOver(long[] boards, boolean[] gameOver, int length) {
+        int bound = LONGS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            mobile(LongVector.fromArray(LONGS, boards, i))
+                    .compare(VectorOperators.EQ, 0)
+                    .intoArray(gameOver, i);
+        }
+        for (; i < length; i++) {
+            gameOver[i] = bitboard.isGameOver(boards[i]);
+        }
+    }
+}
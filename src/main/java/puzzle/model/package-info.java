@@ -8,8 +8,21 @@
  *     implementing the rules and logic of the puzzle game.</li>
  *     <li>{@link puzzle.model.Position}: Represents a position of the coin on the puzzle board,
  *     used to identify specific locations of squares and coins.</li>
+ *     <li>{@link puzzle.model.TwoPhaseMoves}: Canonical instances of the moves between positions, so that the
+ *     object API does not allocate a move per query.</li>
  *     <li>{@link puzzle.model.Square}: Represents the possible states of a square on the puzzle board,
  *     such as empty or containing a coin.</li>
+ *     <li>{@link puzzle.model.Bitboard}: Implements the rules of the puzzle on boards packed into a {@code long},
+ *     without allocating.</li>
+ *     <li>{@link puzzle.model.MoveHistory}: Records the moves made on a board in packed form for undo and redo.</li>
+ *     <li>{@link puzzle.model.MoveListener}: Receives a notification of every move made on a
+ *     {@link puzzle.model.CoinState}.</li>
+ *     <li>{@link puzzle.model.PlacementIndex}: Numbers the placements of a fixed number of coins densely,
+ *     for tables over placements.</li>
+ *     <li>{@link puzzle.model.LabelledCoinState}: The variant of the puzzle in which every coin has to reach a
+ *     corner of its own.</li>
+ *     <li>{@link puzzle.model.BatchEvaluator}: Evaluates the rules on many packed boards at once, vectorized
+ *     when the Vector API is available.</li>
  * </ul>
  * <p>
  * This package encapsulates the core functionality and data structures required to model
@@ -0,0 +1,162 @@
+package puzzle.result;
+
+import lombok.NonNull;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Persists game results on a background thread so that callers, such as the JavaFX application thread,
+ * never do file I/O themselves.
+ * <p>
+ * Results submitted while a write is in progress are coalesced and written together with a single
+ * {@link GameResultManager#addAll(List)} call. The queue of pending results is bounded: when it is full,
+ * {@link #submit(GameResult)} does not block but returns a future that has already failed with
+ * {@link RejectedExecutionException}, so the caller can decide whether to retry or drop the result.
+ */
+public class AsyncGameResultWriter implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final PendingResult SHUTDOWN = new PendingResult(null, null);
+
+    private final GameResultManager manager;
+    private final BlockingQueue<PendingResult> queue;
+    private final int capacity;
+    private final Thread writer;
+    // Guards closed together with the queue, so that no result is queued after the shutdown marker
+    private final Object lock = new Object();
+    private boolean closed;
+
+    private record PendingResult(GameResult result, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Constructs a writer with the default queue capacity.
+     *
+     * @param manager the manager the results are written to
+     */
+    public AsyncGameResultWriter(@NonNull GameResultManager manager) {
+        this(manager, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a writer.
+     *
+     * @param manager the manager the results are written to
+     * @param capacity the maximum number of results waiting to be written
+     */
+    public AsyncGameResultWriter(@NonNull GameResultManager manager, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.manager = manager;
+        this.capacity = capacity;
+        // One extra slot so that the shutdown marker always fits
+        this.queue = new ArrayBlockingQueue<>(capacity + 1);
+        this.writer = Thread.ofVirtual().name("result-writer").start(this::run);
+    }
+
+    /**
+     * Queues a result to be written. This method never blocks.
+     *
+     * @param result the result to write
+     * @return a future completed when the result has been written, or completed exceptionally
+     * if the write failed, the queue is full or the writer is closed
+     */
+    public CompletableFuture<Void> submit(@NonNull GameResult result) {
+        var pending = new PendingResult(result, new CompletableFuture<>());
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Result writer is closed"));
+            }
+            if (queue.size() >= capacity || !queue.offer(pending)) {
+                Logger.warn("Result queue is full, rejecting result of {}", result.getNameOfPlayer());
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Result queue is full"));
+            }
+        }
+        return pending.future();
+    }
+
+    /**
+     * Returns the number of results waiting to be written.
+     *
+     * @return the number of pending results
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting results, waits until the pending results are written and stops the writer thread.
+     * If the calling thread is interrupted while waiting, it returns early with its interrupt status set;
+     * the writer thread still writes the pending results.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Never full: submit keeps one slot free for the marker
+            queue.add(SHUTDOWN);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Logger.warn("Interrupted while waiting for the pending results to be written");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<PendingResult> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                boolean shutdown = batch.remove(SHUTDOWN);
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                }
+                if (shutdown) {
+                    Logger.debug("Result writer stopped");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Logger.warn("Result writer interrupted");
+        } finally {
+            synchronized (lock) {
+                closed = true;
+            }
+            // Nothing can be queued any more, fail whatever was left
+            queue.drainTo(batch);
+            batch.remove(SHUTDOWN);
+            batch.forEach(pending -> pending.future().completeExceptionally(new IllegalStateException("Result writer is closed")));
+        }
+    }
+
+    private void write(List<PendingResult> batch) {
+        List<GameResult> results = new ArrayList<>(batch.size());
+        for (var pending : batch) {
+            results.add(pending.result());
+        }
+        try {
+            manager.addAll(results);
+            Logger.debug("Wrote {} result(s)", results.size());
+            batch.forEach(pending -> pending.future().complete(null));
+        } catch (IOException | RuntimeException e) {
+            Logger.error(e, "Failed to write {} result(s)", results.size());
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package puzzle.result;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helper for replacing files so that a crash leaves either the old or the new content, never a mix.
+ * <p>
+ * The content is written to a temporary file next to the target, forced to disk and then moved over the
+ * target in one atomic step.
+ */
+public final class AtomicFiles {
+
+    /**
+     * Writes content to an output stream.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Writes the content.
+         *
+         * @param out the stream to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes text content to a writer.
+     */
+    @FunctionalInterface
+    public interface TextContent {
+
+        /**
+         * Writes the content.
+         *
+         * @param writer the writer to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Atomically replaces the target file with the specified content.
+     *
+     * @param target the file to replace
+     * @param content writes the new content, may close the stream
+     * @throws IOException if an I/O error occurs, in which case the target is left unchanged
+     */
+    public static void write(Path target, Content content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (var out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                content.writeTo(out);
+            }
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Atomically replaces the target file with the specified UTF-8 text.
+     *
+     * @param target the file to replace
+     * @param content writes the new content, may close the writer
+     * @throws IOException if an I/O error occurs, in which case the target is left unchanged
+     */
+    public static void writeText(Path target, TextContent content) throws IOException {
+        write(target, out -> {
+            try (var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                content.writeTo(writer);
+            }
+        });
+    }
+}
@@ -7,6 +7,12 @@ import java.time.Duration;
 /**
  * Class that takes components like name of player, whether puzzle was solved, duration of play and
  * number of moves player did.
+ * <p>
+ * The duration is kept as a primitive number of nanoseconds so that sorting and ranking by duration
+ * does not have to parse it again; it is still stored as an ISO-8601 string in the JSON file.
+ * <p>
+ * The moves of the game may be recorded so that the result can be checked by {@link ReplayVerifier}.
+ * They are kept in the notation of {@link ReplayVerifier#encode}, four digits per move.
  */
 @Data
 @NoArgsConstructor
@@ -17,24 +23,60 @@ public class GameResult {
     @NonNull private String nameOfPlayer;
     private boolean solved;
     private int numberOfMoves;
-    @NonNull private String duration;
+    private long durationNanos;
+    private String moves;
 
     /**
-     * Retrieves the duration and formats it to Duration.
+     * Retrieves the duration of play.
      *
      * @return duration of play
      */
     public Duration getDuration() {
-        return Duration.parse(duration);
+        return Duration.ofNanos(durationNanos);
     }
 
     /**
-     * Formats duration back to string.
+     * Sets the duration of play.
      *
      * @param duration duration of a play
      */
-    public void setDuration(Duration duration) {
-        this.duration = duration.toString();
+    public void setDuration(@NonNull Duration duration) {
+        this.durationNanos = duration.toNanos();
+    }
+
+    /**
+     * Parses an ISO-8601 duration such as {@code PT1M13S} and sets it as the duration of play.
+     *
+     * @param duration duration of a play in ISO-8601 format
+     */
+    public void setDuration(@NonNull String duration) {
+        setDuration(Duration.parse(duration));
+    }
+
+    /**
+     * Builder extensions accepting the duration either as {@link Duration} or in ISO-8601 format.
+     */
+    public static class GameResultBuilder {
+
+        /**
+         * Sets the duration of play.
+         *
+         * @param duration duration of a play
+         * @return this builder
+         */
+        public GameResultBuilder duration(@NonNull Duration duration) {
+            return durationNanos(duration.toNanos());
+        }
+
+        /**
+         * Sets the duration of play given in ISO-8601 format.
+         *
+         * @param duration duration of a play in ISO-8601 format
+         * @return this builder
+         */
+        public GameResultBuilder duration(@NonNull String duration) {
+            return duration(Duration.parse(duration));
+        }
     }
 
 }
@@ -9,6 +9,14 @@ public interface GameResultManager {
 
     List<GameResult> getAll() throws IOException;
 
+    default List<GameResult> addAll(List<GameResult> results) throws IOException {
+        List<GameResult> all = null;
+        for (var result : results) {
+            all = add(result);
+        }
+        return all == null ? getAll() : all;
+    }
+
     default List<GameResult> getBest(int limit) throws IOException{
         return getAll().stream()
                 .filter(GameResult::isSolved)
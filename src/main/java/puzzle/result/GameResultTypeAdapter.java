@@ -0,0 +1,148 @@
+package puzzle.result;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Streaming Gson adapter for {@link GameResult}.
+ * <p>
+ * Replaces the reflective adapter Gson would otherwise use. The JSON format is unchanged:
+ * the duration is written as an ISO-8601 string such as {@code "PT1M13S"}, and read straight
+ * into {@link GameResult#getDurationNanos()} without going through {@link Duration#parse}
+ * for the usual {@code PT..H..M..S} values. The recorded moves are only written when present.
+ */
+public class GameResultTypeAdapter extends TypeAdapter<GameResult> {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The most digits of a number parsed directly; longer numbers are left to {@link Duration#parse}.
+     */
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * Writes a game result as a JSON object.
+     *
+     * @param out the writer to write to
+     * @param result the result to write, may be {@code null}
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void write(JsonWriter out, GameResult result) throws IOException {
+        if (result == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("nameOfPlayer").value(result.getNameOfPlayer());
+        out.name("solved").value(result.isSolved());
+        out.name("numberOfMoves").value(result.getNumberOfMoves());
+        out.name("duration").value(Duration.ofNanos(result.getDurationNanos()).toString());
+        if (result.getMoves() != null) {
+            out.name("moves").value(result.getMoves());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads a game result from a JSON object. Unknown properties are skipped.
+     *
+     * @param in the reader to read from
+     * @return the result read, or {@code null} for a JSON null
+     * @throws IOException if an I/O error occurs or the JSON is malformed
+     */
+    @Override
+    public GameResult read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var result = new GameResult();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "nameOfPlayer" -> result.setNameOfPlayer(in.nextString());
+                case "solved" -> result.setSolved(in.nextBoolean());
+                case "numberOfMoves" -> result.setNumberOfMoves(in.nextInt());
+                case "duration" -> result.setDurationNanos(parseDurationNanos(in.nextString()));
+                case "moves" -> result.setMoves(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return result;
+    }
+
+    /**
+     * Parses an ISO-8601 duration into nanoseconds. Durations of the form {@code PT[nH][nM][n[.f]S]}, with the
+     * units in that order, each at most once and at most nine fraction digits, are parsed directly; anything
+     * else is delegated to {@link Duration#parse}, so the result is always the same as {@code Duration.parse}.
+     *
+     * @param text the duration in ISO-8601 format
+     * @return the duration in nanoseconds
+     */
+    static long parseDurationNanos(String text) {
+        int length = text.length();
+        if (length < 4 || text.charAt(0) != 'P' || text.charAt(1) != 'T') {
+            return Duration.parse(text).toNanos();
+        }
+        long seconds = 0;
+        long nanos = 0;
+        long value = 0;
+        int digits = 0;
+        // The units already read: 0 none, 1 hours, 2 minutes, 3 seconds
+        int unit = 0;
+        int i = 2;
+        while (i < length) {
+            char c = text.charAt(i++);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+                continue;
+            }
+            if (digits == 0 || digits > MAX_DIGITS) {
+                return Duration.parse(text).toNanos();
+            }
+            int next = switch (c) {
+                case 'H' -> 1;
+                case 'M' -> 2;
+                case 'S', '.' -> 3;
+                default -> 0;
+            };
+            if (next <= unit) {
+                return Duration.parse(text).toNanos();
+            }
+            unit = next;
+            switch (c) {
+                case 'H' -> seconds += value * 3600;
+                case 'M' -> seconds += value * 60;
+                case 'S' -> seconds += value;
+                default -> {
+                    seconds += value;
+                    int start = i;
+                    long scale = NANOS_PER_SECOND / 10;
+                    while (i < length && Character.isDigit(text.charAt(i))) {
+                        nanos += (text.charAt(i++) - '0') * scale;
+                        scale /= 10;
+                    }
+                    int fractionDigits = i - start;
+                    if (fractionDigits == 0 || fractionDigits > MAX_DIGITS || i != length - 1 || text.charAt(i) != 'S') {
+                        return Duration.parse(text).toNanos();
+                    }
+                    i++;
+                }
+            }
+            value = 0;
+            digits = 0;
+        }
+        if (digits > 0 || seconds > Long.MAX_VALUE / NANOS_PER_SECOND - 1) {
+            return Duration.parse(text).toNanos();
+        }
+        return seconds * NANOS_PER_SECOND + nanos;
+    }
+}
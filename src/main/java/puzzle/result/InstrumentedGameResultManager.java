@@ -0,0 +1,71 @@
+package puzzle.result;
+
+import lombok.NonNull;
+import puzzle.metrics.Metrics;
+import puzzle.metrics.Timer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decorator recording the latency of every operation of another {@link GameResultManager}
+ * in the {@code results.*} timers of {@link Metrics}.
+ */
+public class InstrumentedGameResultManager implements GameResultManager {
+
+    private static final Timer ADD = Metrics.timer("results.add");
+    private static final Timer ADD_ALL = Metrics.timer("results.addAll");
+    private static final Timer GET_ALL = Metrics.timer("results.getAll");
+    private static final Timer GET_BEST = Metrics.timer("results.getBest");
+
+    private final GameResultManager manager;
+
+    /**
+     * Constructs a decorator of the specified manager.
+     *
+     * @param manager the manager whose operations are measured
+     */
+    public InstrumentedGameResultManager(@NonNull GameResultManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public List<GameResult> add(GameResult result) throws IOException {
+        long start = ADD.start();
+        try {
+            return manager.add(result);
+        } finally {
+            ADD.stop(start);
+        }
+    }
+
+    @Override
+    public List<GameResult> addAll(List<GameResult> results) throws IOException {
+        long start = ADD_ALL.start();
+        try {
+            return manager.addAll(results);
+        } finally {
+            ADD_ALL.stop(start);
+        }
+    }
+
+    @Override
+    public List<GameResult> getAll() throws IOException {
+        long start = GET_ALL.start();
+        try {
+            return manager.getAll();
+        } finally {
+            GET_ALL.stop(start);
+        }
+    }
+
+    @Override
+    public List<GameResult> getBest(int limit) throws IOException {
+        long start = GET_BEST.start();
+        try {
+            return manager.getBest(limit);
+        } finally {
+            GET_BEST.stop(start);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package puzzle.result;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import lombok.NonNull;
+import puzzle.metrics.ResultIoEvent;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -25,7 +27,18 @@ public class JsonGameResultManager implements GameResultManager{
      */
     public JsonGameResultManager(@NonNull Path filePath) {
         this.filePath = filePath;
-        this.gson = new Gson();
+        this.gson = createGson();
+    }
+
+    /**
+     * Creates a {@link Gson} instance that reads and writes game results with {@link GameResultTypeAdapter}.
+     *
+     * @return a new {@link Gson} instance
+     */
+    static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(GameResult.class, new GameResultTypeAdapter().nullSafe())
+                .create();
     }
 
     /**
@@ -37,11 +50,25 @@ public class JsonGameResultManager implements GameResultManager{
      */
     @Override
     public List<GameResult> add(@NonNull GameResult result) throws IOException {
+        return addAll(List.of(result));
+    }
+
+    /**
+     * Adds several game results to the JSON file, rewriting the file only once.
+     *
+     * @param newResults The game results to be added.
+     * @return The updated list of the puzzle results after adding the new results.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public List<GameResult> addAll(@NonNull List<GameResult> newResults) throws IOException {
         var results = getAll();
-        results.add(result);
-        try (var write = Files.newBufferedWriter(filePath)) {
-            gson.toJson(results, write);
-        }
+        results.addAll(newResults);
+        var event = new ResultIoEvent();
+        event.begin();
+        // Written to a temporary file first, so a crash while writing never leaves a corrupt results file
+        AtomicFiles.writeText(filePath, write -> gson.toJson(results, write));
+        commit(event, "write", results.size());
         return results;
     }
 
@@ -56,9 +83,27 @@ public class JsonGameResultManager implements GameResultManager{
         if (!Files.exists(filePath)) {
             return new ArrayList<>();
         }
+        var event = new ResultIoEvent();
+        event.begin();
+        List<GameResult> results;
         try (var read = Files.newBufferedReader(filePath)) {
-            List<GameResult> results = gson.fromJson(read, new TypeToken<List<GameResult>>(){}.getType());
-            return results;
+            results = gson.fromJson(read, new TypeToken<List<GameResult>>(){}.getType());
+        }
+        if (results == null) {
+            results = new ArrayList<>();
+        }
+        commit(event, "read", results.size());
+        return results;
+    }
+
+    private void commit(ResultIoEvent event, String operation, int entries) throws IOException {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = filePath.toString();
+            event.bytes = Files.size(filePath);
+            event.entries = entries;
+            event.commit();
         }
     }
 }
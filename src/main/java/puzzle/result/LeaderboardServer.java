@@ -0,0 +1,257 @@
+package puzzle.result;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.NonNull;
+import org.tinylog.Logger;
+import puzzle.metrics.Counter;
+import puzzle.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP service exposing the leaderboard to other local tools.
+ * <p>
+ * The server listens on the loopback interface only and handles every request on its own virtual thread.
+ * Queries are answered from a {@link ResultIndex}; the results file is only read at startup and written
+ * through an {@link AsyncGameResultWriter}. Responses of {@code GET} requests carry the index version as
+ * their {@code ETag}, so a client sending it back in {@code If-None-Match} gets {@code 304 Not Modified}
+ * until a new result is submitted.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /leaderboard?limit=n}: the best {@code n} solved results, 10 by default</li>
+ *     <li>{@code GET /players/{name}}: statistics of a player</li>
+ *     <li>{@code POST /results}: submits a result given as a JSON object</li>
+ * </ul>
+ */
+public class LeaderboardServer implements AutoCloseable {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 1000;
+
+    private static final Counter CACHE_HITS = Metrics.counter("leaderboard.cacheHits");
+    private static final Counter CACHE_MISSES = Metrics.counter("leaderboard.cacheMisses");
+    private static final Counter NOT_MODIFIED = Metrics.counter("leaderboard.notModified");
+
+    private final ResultIndex index;
+    private final AsyncGameResultWriter writer;
+    private final Gson gson = JsonGameResultManager.createGson();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile CachedBody cachedLeaderboard = new CachedBody(-1, new byte[0]);
+
+    private record CachedBody(long version, byte[] body) {
+    }
+
+    /**
+     * Constructs a server on the specified port of the loopback interface. The server is not started.
+     *
+     * @param manager the manager storing the results
+     * @param port the port to listen on, {@code 0} for any free port
+     * @throws IOException if the results cannot be read or the server cannot be bound
+     */
+    public LeaderboardServer(@NonNull GameResultManager manager, int port) throws IOException {
+        this.index = new ResultIndex(manager);
+        this.writer = new AsyncGameResultWriter(manager);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/leaderboard", this::handleLeaderboard);
+        server.createContext("/players/", this::handlePlayer);
+        server.createContext("/results", this::handleResults);
+    }
+
+    /**
+     * Starts the server.
+     */
+    public void start() {
+        server.start();
+        Logger.info("Leaderboard server listening on port {} with {} results", getPort(), index.size());
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and waits until the submitted results are written.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        writer.close();
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requireMethod(exchange, "GET")) {
+                return;
+            }
+            int limit = parseLimit(exchange.getRequestURI().getQuery());
+            if (limit < 0) {
+                send(exchange, 400, "Invalid limit");
+                return;
+            }
+            long version = index.getVersion();
+            if (notModified(exchange, version)) {
+                return;
+            }
+            byte[] body;
+            if (limit == DEFAULT_LIMIT) {
+                var cached = cachedLeaderboard;
+                if (cached.version() != version) {
+                    CACHE_MISSES.increment();
+                    cached = new CachedBody(version, toJson(index.getBest(limit)));
+                    cachedLeaderboard = cached;
+                } else {
+                    CACHE_HITS.increment();
+                }
+                body = cached.body();
+            } else {
+                body = toJson(index.getBest(limit));
+            }
+            sendJson(exchange, version, body);
+        }
+    }
+
+    private void handlePlayer(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requireMethod(exchange, "GET")) {
+                return;
+            }
+            String name = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring("/players/".length()),
+                    StandardCharsets.UTF_8);
+            long version = index.getVersion();
+            if (notModified(exchange, version)) {
+                return;
+            }
+            var stats = index.getPlayerStats(name);
+            if (stats.isEmpty()) {
+                send(exchange, 404, "Unknown player");
+                return;
+            }
+            sendJson(exchange, version, gson.toJson(stats.get()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void handleResults(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requireMethod(exchange, "POST")) {
+                return;
+            }
+            GameResult result;
+            try (var reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                result = gson.fromJson(reader, GameResult.class);
+            } catch (RuntimeException e) {
+                // Malformed JSON, but also a fractional number of moves or a duration that is not ISO-8601
+                send(exchange, 400, "Invalid result");
+                return;
+            }
+            if (result == null || result.getNameOfPlayer() == null) {
+                send(exchange, 400, "Invalid result");
+                return;
+            }
+            try {
+                // Requests run on virtual threads, so waiting for the write does not tie up a platform thread
+                writer.submit(result).join();
+            } catch (CompletionException e) {
+                Logger.warn(e, "Could not store submitted result");
+                send(exchange, 503, "Result could not be stored");
+                return;
+            }
+            index.add(result);
+            send(exchange, 201, "Created");
+        }
+    }
+
+    private boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            send(exchange, 405, "Method not allowed");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean notModified(HttpExchange exchange, long version) throws IOException {
+        String etag = etag(version);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            NOT_MODIFIED.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private static int parseLimit(String query) {
+        if (query == null) {
+            return DEFAULT_LIMIT;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("limit=")) {
+                try {
+                    int limit = Integer.parseInt(parameter.substring("limit=".length()));
+                    return limit >= 0 && limit <= MAX_LIMIT ? limit : -1;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return DEFAULT_LIMIT;
+    }
+
+    private byte[] toJson(List<GameResult> results) {
+        return gson.toJson(results).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static void sendJson(HttpExchange exchange, long version, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("ETag", etag(version));
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Starts a leaderboard server.
+     *
+     * @param args the results file and the port, by default {@code result.json} and {@code 8080}
+     * @throws IOException if the results cannot be read or the server cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "result.json");
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        Metrics.registerMBeans();
+        var server = new LeaderboardServer(new InstrumentedGameResultManager(new JsonGameResultManager(file)), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+    }
+}
@@ -0,0 +1,259 @@
+package puzzle.result;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.NonNull;
+import org.tinylog.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Class for storing game results in an append-only log of checksummed records.
+ * <p>
+ * Every record consists of the length of its payload, a CRC-32C checksum of the payload and the payload itself,
+ * a game result in JSON. Records are appended and forced to disk, so a crash can damage at most the record
+ * being written. A checkpoint file next to the log holds the length of the log up to which all records are
+ * known to be valid. When the log is opened, only the records after the checkpoint are validated, and a damaged
+ * tail is cut off. The checkpoint is moved forward every {@value #CHECKPOINT_INTERVAL} records, which bounds
+ * the work done by recovery regardless of the size of the history.
+ * <p>
+ * The results are read from the log once, on first use, and then kept in memory together with the appended
+ * ones, so that adding a result does not read the log back.
+ */
+public class LogGameResultManager implements GameResultManager, AutoCloseable {
+
+    /**
+     * Number of records after which the checkpoint is moved forward.
+     */
+    public static final int CHECKPOINT_INTERVAL = 4096;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path logFile;
+    private final Path checkpointFile;
+    private final Gson gson = JsonGameResultManager.createGson();
+    private final FileChannel channel;
+    private long validLength;
+    private int recordsSinceCheckpoint;
+    // Read on first use, null until then
+    private List<GameResult> results;
+
+    /**
+     * Opens the log at the specified path, recovering it if the last write was interrupted.
+     *
+     * @param logFile the log file, created if it does not exist
+     * @throws IOException if the log cannot be opened or recovered
+     */
+    public LogGameResultManager(@NonNull Path logFile) throws IOException {
+        this.logFile = logFile;
+        this.checkpointFile = logFile.resolveSibling(logFile.getFileName() + ".checkpoint");
+        this.channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a game result to the log.
+     *
+     * @param result The game result to be added.
+     * @return The list of all puzzle results after adding the new result.
+     * @throws IOException if an I/O error occurs while writing to the log.
+     */
+    @Override
+    public List<GameResult> add(@NonNull GameResult result) throws IOException {
+        return addAll(List.of(result));
+    }
+
+    /**
+     * Appends game results to the log with a single write.
+     *
+     * @param results The game results to be added.
+     * @return The list of all puzzle results after adding the new results.
+     * @throws IOException if an I/O error occurs while writing to the log.
+     */
+    @Override
+    public synchronized List<GameResult> addAll(@NonNull List<GameResult> results) throws IOException {
+        append(results);
+        return getAll();
+    }
+
+    /**
+     * Appends game results to the log without reading the stored results back.
+     *
+     * @param results The game results to be added.
+     * @throws IOException if an I/O error occurs while writing to the log.
+     */
+    public synchronized void append(@NonNull List<GameResult> results) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(results.size());
+        int size = 0;
+        for (GameResult result : results) {
+            byte[] payload = gson.toJson(result, GameResult.class).getBytes(StandardCharsets.UTF_8);
+            payloads.add(payload);
+            size += HEADER_BYTES + payload.length;
+        }
+        var buffer = ByteBuffer.allocate(size);
+        var crc = new CRC32C();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        buffer.flip();
+        channel.position(validLength);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        validLength += size;
+        if (this.results != null) {
+            this.results.addAll(results);
+        }
+        recordsSinceCheckpoint += results.size();
+        if (recordsSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * Retrieves all game results stored in the log.
+     *
+     * @return a list containing all game results.
+     * @throws IOException if an I/O error occurs while reading the log.
+     */
+    @Override
+    public synchronized List<GameResult> getAll() throws IOException {
+        if (results == null) {
+            results = read();
+        }
+        return new ArrayList<>(results);
+    }
+
+    private List<GameResult> read() throws IOException {
+        List<GameResult> results = new ArrayList<>();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile), 1 << 16))) {
+            long position = 0;
+            while (position < validLength) {
+                int length = in.readInt();
+                in.readInt();
+                byte[] payload = in.readNBytes(length);
+                results.add(gson.fromJson(new String(payload, StandardCharsets.UTF_8), GameResult.class));
+                position += HEADER_BYTES + length;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes a checkpoint and closes the log.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (channel.isOpen() && recordsSinceCheckpoint > 0) {
+                writeCheckpoint();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Validates the records after the checkpoint and cuts off the log after the last valid record.
+     */
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        long size = channel.size();
+        long position = Math.min(readCheckpoint(), size);
+        var crc = new CRC32C();
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        int records = 0;
+        var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(position)), 1 << 16));
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            in.readFully(header.array());
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length < 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            byte[] payload = in.readNBytes(length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum || !isResult(payload)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+            records++;
+        }
+        validLength = position;
+        if (validLength < size) {
+            Logger.warn("Cutting off {} damaged byte(s) at the end of {}", size - validLength, logFile);
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        recordsSinceCheckpoint = records;
+        writeCheckpoint();
+        Logger.info("Recovered {} with {} record(s) after the checkpoint in {} ms", logFile, records,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean isResult(byte[] payload) {
+        try {
+            return gson.fromJson(new String(payload, StandardCharsets.UTF_8), GameResult.class) != null;
+        } catch (JsonParseException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        try (var in = new DataInputStream(Files.newInputStream(checkpointFile))) {
+            long offset = in.readLong();
+            long checksum = in.readLong();
+            if (checksum != checksum(offset)) {
+                Logger.warn("Ignoring invalid checkpoint {}", checkpointFile);
+                return 0;
+            }
+            return offset;
+        } catch (EOFException e) {
+            Logger.warn("Ignoring incomplete checkpoint {}", checkpointFile);
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        long offset = validLength;
+        AtomicFiles.write(checkpointFile, out -> {
+            out.write(ByteBuffer.allocate(16).putLong(offset).putLong(checksum(offset)).array());
+        });
+        recordsSinceCheckpoint = 0;
+    }
+
+    private static long checksum(long offset) {
+        var crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(offset).array());
+        return crc.getValue();
+    }
+}
@@ -6,11 +6,15 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
 
 public class Main {
 
     private static final Faker FAKER = new Faker(Locale.ENGLISH);
 
+    private static final int NAME_POOL_SIZE = 10_000;
+
     private static GameResult createGameResult() {
         return GameResult.builder()
                 .nameOfPlayer(FAKER.name().firstName())
@@ -20,8 +24,50 @@ public class Main {
                 .build();
     }
 
+    /**
+     * Returns an endless stream of random results, fast enough for datasets of millions of rows. Faker is only
+     * used for a pool of names, the other fields are drawn directly.
+     *
+     * @param seed the seed of the random numbers
+     * @return the random results
+     */
+    static Stream<GameResult> createGameResults(long seed) {
+        var random = new SplittableRandom(seed);
+        String[] names = new String[NAME_POOL_SIZE];
+        for (var i = 0; i < names.length; i++) {
+            names[i] = FAKER.name().firstName();
+        }
+        return Stream.generate(() -> GameResult.builder()
+                .nameOfPlayer(names[random.nextInt(names.length)])
+                .solved(random.nextBoolean())
+                .numberOfMoves(random.nextInt(10, 50))
+                .durationNanos(random.nextLong(10, 100) * 1_000_000_000L)
+                .build());
+    }
+
+    /**
+     * Generates random results and prints the best ten, or writes a synthetic dataset.
+     * <p>
+     * Usage: {@code Main [directory]} stores 30 results, in partitions in the directory if given;
+     * {@code Main --generate file rows} writes the number of random results to a JSON, JSON Lines or CSV file.
+     *
+     * @param args optionally a directory, in which case the results are stored in partitions there
+     * @throws IOException if the results cannot be stored
+     */
     public static void main(String[] args) throws IOException {
-        GameResultManager manager = new JsonGameResultManager(Path.of("/home/marbelle/uni/uni coding/homework-project-2024-zafirazz/src/main/java/puzzle/result/result.json"));
+        if (args.length == 3 && args[0].equals("--generate")) {
+            Path file = Path.of(args[1]);
+            long rows = Long.parseLong(args[2]);
+            long start = System.nanoTime();
+            Iterable<GameResult> results = createGameResults(2024).limit(rows)::iterator;
+            new ResultTransfer().export(results, file, ResultTransfer.Format.of(file));
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%d results written in %.1f s (%.0f results/s)%n", rows, elapsed / 1e9, rows * 1e9 / elapsed);
+            return;
+        }
+        GameResultManager manager = args.length > 0
+                ? new PartitionedGameResultManager(Path.of(args[0]))
+                : new JsonGameResultManager(Path.of("/home/marbelle/uni/uni coding/homework-project-2024-zafirazz/src/main/java/puzzle/result/result.json"));
         for (var i = 0; i < 30; i++) {
             manager.add(createGameResult());
         }
@@ -0,0 +1,538 @@
+package puzzle.result;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+import org.tinylog.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class for storing game results in a directory of partitions instead of a single JSON file.
+ * <p>
+ * New results are appended, one JSON object per line, to the active partition. A new partition is started
+ * every day and whenever the active partition exceeds the maximum size. A manifest keeps the partitions
+ * together with summary statistics (number of results, number of solved results, least number of moves),
+ * which {@link #getBest(int)} uses to skip partitions that cannot contain any of the best results.
+ * <p>
+ * The partition files are written before the manifest. When the manager is opened, the partitions that are
+ * not compacted are summarised again from their files, and partition files the manifest does not list are
+ * added to it, so that a crash between the two writes loses no result.
+ * <p>
+ * Partitions that are no longer active are compacted into a binary format in which the solved results
+ * come first, sorted by the number of moves, so that {@link #getBest(int)} can stop reading early. Results
+ * with the same number of moves keep the order they were added in.
+ */
+public class PartitionedGameResultManager implements GameResultManager {
+
+    /**
+     * Default maximum size of a partition in bytes.
+     */
+    public static final long DEFAULT_MAX_PARTITION_BYTES = 16 * 1024 * 1024;
+
+    private static final String MANIFEST = "manifest.json";
+    private static final Pattern PARTITION_NAME = Pattern.compile("results-(\\d{4}-\\d{2}-\\d{2})-\\d{3}\\.jsonl");
+    private static final int COMPACT_MAGIC = 0x46435031;
+
+    private final Path directory;
+    private final long maxPartitionBytes;
+    private final Clock clock;
+    private final Gson gson = JsonGameResultManager.createGson();
+    private final List<Partition> partitions;
+
+    /**
+     * Summary of a partition kept in the manifest.
+     */
+    private static final class Partition {
+        private String name;
+        private LocalDate day;
+        private boolean compacted;
+        private int count;
+        private int solvedCount;
+        private int minMoves;
+        private long bytes;
+    }
+
+    /**
+     * Constructs a manager storing results in the specified directory with the default maximum partition size.
+     *
+     * @param directory the directory of the partitions, created if it does not exist
+     * @throws IOException if the directory cannot be created or the manifest cannot be read
+     */
+    public PartitionedGameResultManager(@NonNull Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_PARTITION_BYTES, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a manager storing results in the specified directory.
+     *
+     * @param directory the directory of the partitions, created if it does not exist
+     * @param maxPartitionBytes the size in bytes after which a new partition is started
+     * @param clock the clock used to decide the day of a result
+     * @throws IOException if the directory cannot be created or the manifest cannot be read
+     */
+    public PartitionedGameResultManager(@NonNull Path directory, long maxPartitionBytes, @NonNull Clock clock) throws IOException {
+        this.directory = directory;
+        this.maxPartitionBytes = maxPartitionBytes;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        this.partitions = readManifest();
+        recover();
+    }
+
+    /**
+     * Appends a new game result to the active partition.
+     *
+     * @param result The game result to be added.
+     * @return The list of all puzzle results after adding the new result.
+     * @throws IOException if an I/O error occurs while writing the partition.
+     */
+    @Override
+    public List<GameResult> add(@NonNull GameResult result) throws IOException {
+        return addAll(List.of(result));
+    }
+
+    /**
+     * Appends new game results to the active partition, rolling over to new partitions as needed.
+     *
+     * @param results The game results to be added.
+     * @return The list of all puzzle results after adding the new results.
+     * @throws IOException if an I/O error occurs while writing the partitions.
+     */
+    @Override
+    public synchronized List<GameResult> addAll(@NonNull List<GameResult> results) throws IOException {
+        append(results);
+        return getAll();
+    }
+
+    /**
+     * Appends new game results without reading the stored results back.
+     *
+     * @param results The game results to be added.
+     * @throws IOException if an I/O error occurs while writing the partitions.
+     */
+    public synchronized void append(@NonNull List<GameResult> results) throws IOException {
+        int i = 0;
+        while (i < results.size()) {
+            Partition active = activePartition();
+            var lines = new ByteArrayOutputStream();
+            int first = i;
+            while (i < results.size() && active.bytes + lines.size() < maxPartitionBytes) {
+                lines.writeBytes((gson.toJson(results.get(i++), GameResult.class) + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                Files.write(directory.resolve(active.name), lines.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                cutTornTail(active);
+                throw e;
+            }
+            // Only counted once written, so that a failed write does not leave the manifest ahead of the partition
+            active.bytes += lines.size();
+            for (GameResult result : results.subList(first, i)) {
+                summarise(active, result);
+            }
+        }
+        writeManifest();
+    }
+
+    /**
+     * Retrieves all game results of all partitions, oldest partition first. The results of a partition that is
+     * not compacted are in the order they were added; those of a compacted partition are ordered as in the
+     * compacted format, solved results first.
+     *
+     * @return a list containing all game results.
+     * @throws IOException if an I/O error occurs while reading the partitions.
+     */
+    @Override
+    public synchronized List<GameResult> getAll() throws IOException {
+        List<GameResult> results = new ArrayList<>();
+        for (Partition partition : partitions) {
+            results.addAll(read(partition, false, Integer.MAX_VALUE));
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves the solved results with the least number of moves. Partitions are visited in the order of
+     * their least number of moves, and the search stops at the first partition whose least number of moves
+     * is greater than that of every result found so far.
+     *
+     * @param limit the maximum number of results
+     * @return the best results, ordered by the number of moves
+     * @throws IOException if an I/O error occurs while reading the partitions.
+     */
+    @Override
+    public synchronized List<GameResult> getBest(int limit) throws IOException {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<Integer> candidates = new ArrayList<>();
+        for (var p = 0; p < partitions.size(); p++) {
+            if (partitions.get(p).solvedCount > 0) {
+                candidates.add(p);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(p -> partitions.get(p).minMoves));
+
+        // Worst of the best results found so far on top; ties are broken by position to keep the order stable
+        Comparator<Ranked> ranking = Comparator.comparingInt((Ranked r) -> r.result().getNumberOfMoves())
+                .thenComparingInt(Ranked::partition)
+                .thenComparingInt(Ranked::position);
+        var best = new PriorityQueue<>(ranking.reversed());
+        int visited = 0;
+        for (int p : candidates) {
+            Partition partition = partitions.get(p);
+            if (best.size() == limit && partition.minMoves > best.peek().result().getNumberOfMoves()) {
+                break;
+            }
+            visited++;
+            int bound = best.size() == limit ? best.peek().result().getNumberOfMoves() : Integer.MAX_VALUE;
+            List<GameResult> results = read(partition, true, bound);
+            for (var i = 0; i < results.size(); i++) {
+                GameResult result = results.get(i);
+                if (!result.isSolved()) {
+                    continue;
+                }
+                best.add(new Ranked(result, p, i));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        Logger.debug("Best results read from {} of {} partitions", visited, partitions.size());
+        return best.stream().sorted(ranking).map(Ranked::result).toList();
+    }
+
+    private record Ranked(GameResult result, int partition, int position) {
+    }
+
+    /**
+     * Compacts every partition except the active one into the binary format.
+     *
+     * @throws IOException if an I/O error occurs while compacting.
+     */
+    public synchronized void compact() throws IOException {
+        for (var p = 0; p < partitions.size() - 1; p++) {
+            compact(partitions.get(p));
+        }
+        writeManifest();
+    }
+
+    private Partition activePartition() throws IOException {
+        LocalDate today = LocalDate.now(clock);
+        if (!partitions.isEmpty()) {
+            Partition last = partitions.get(partitions.size() - 1);
+            if (!last.compacted && last.day.equals(today) && last.bytes < maxPartitionBytes) {
+                return last;
+            }
+            compact(last);
+        }
+        int sequence = 0;
+        for (Partition partition : partitions) {
+            if (partition.day.equals(today)) {
+                sequence++;
+            }
+        }
+        var partition = new Partition();
+        partition.name = String.format("results-%s-%03d.jsonl", today, sequence);
+        partition.day = today;
+        partitions.add(partition);
+        Logger.info("Started partition {}", partition.name);
+        return partition;
+    }
+
+    /**
+     * Cuts off an incomplete last line of an active partition left by a crash or a failed append, so that the
+     * next append starts on a new line instead of turning the torn line into a corrupt one.
+     */
+    private void cutTornTail(Partition partition) throws IOException {
+        Path file = directory.resolve(partition.name);
+        if (partition.compacted || !Files.exists(file)) {
+            return;
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long end = size;
+            var buffer = ByteBuffer.allocate(4096);
+            search:
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new EOFException("Partition shrank while being read: " + file);
+                    }
+                }
+                for (int i = buffer.limit() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        end = start + i + 1;
+                        break search;
+                    }
+                }
+                end = start;
+            }
+            if (end < size) {
+                Logger.warn("Cutting off {} byte(s) of an incomplete result at the end of {}", size - end, file);
+                channel.truncate(end);
+                channel.force(true);
+            }
+            partition.bytes = end;
+        }
+    }
+
+    /**
+     * Brings the manifest up to date with the partition files after a crash between writing a partition and
+     * writing the manifest. Partitions that are not compacted are summarised again from their files, partition
+     * files missing from the manifest are added, and originals left behind by an interrupted compaction are
+     * removed.
+     */
+    private void recover() throws IOException {
+        Set<String> listed = new HashSet<>();
+        for (Partition partition : partitions) {
+            listed.add(partition.name);
+        }
+        List<Path> orphans = new ArrayList<>();
+        try (var files = Files.newDirectoryStream(directory, "results-*.jsonl")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    orphans.add(file);
+                }
+            }
+        }
+        orphans.sort(Comparator.naturalOrder());
+        boolean changed = false;
+        for (Path file : orphans) {
+            String name = file.getFileName().toString();
+            if (listed.contains(name.replace(".jsonl", ".bin"))) {
+                // The manifest already points at the compacted copy
+                Logger.warn("Removing partition {} left behind by an interrupted compaction", name);
+                Files.delete(file);
+                continue;
+            }
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                Logger.warn("Ignoring unknown file {}", file);
+                continue;
+            }
+            var partition = new Partition();
+            partition.name = name;
+            partition.day = LocalDate.parse(matcher.group(1));
+            partitions.add(partition);
+            Logger.warn("Recovered partition {} missing from the manifest", name);
+            changed = true;
+        }
+        for (Partition partition : partitions) {
+            if (partition.compacted) {
+                continue;
+            }
+            cutTornTail(partition);
+            int count = partition.count;
+            int solvedCount = partition.solvedCount;
+            int minMoves = partition.minMoves;
+            partition.count = 0;
+            partition.solvedCount = 0;
+            partition.minMoves = 0;
+            for (GameResult result : read(partition, false, Integer.MAX_VALUE)) {
+                summarise(partition, result);
+            }
+            if (partition.count != count || partition.solvedCount != solvedCount || partition.minMoves != minMoves) {
+                Logger.warn("Summary of partition {} was out of date, {} result(s) instead of {}", partition.name,
+                        partition.count, count);
+                changed = true;
+            }
+        }
+        if (changed) {
+            writeManifest();
+        }
+    }
+
+    private static void summarise(Partition partition, GameResult result) {
+        if (result.isSolved()) {
+            if (partition.solvedCount == 0 || result.getNumberOfMoves() < partition.minMoves) {
+                partition.minMoves = result.getNumberOfMoves();
+            }
+            partition.solvedCount++;
+        }
+        partition.count++;
+    }
+
+    /**
+     * Reads the results of a partition. When {@code solvedOnly} is set, reading a compacted partition stops
+     * at the first result that is unsolved or has more moves than {@code maxMoves}; other partitions are
+     * read completely and left to the caller to filter.
+     */
+    private List<GameResult> read(Partition partition, boolean solvedOnly, int maxMoves) throws IOException {
+        Path file = directory.resolve(partition.name);
+        List<GameResult> results = new ArrayList<>(partition.count);
+        if (!partition.compacted) {
+            try (var reader = Files.newBufferedReader(file)) {
+                String line = reader.readLine();
+                while (line != null) {
+                    String next = reader.readLine();
+                    if (!line.isBlank()) {
+                        try {
+                            results.add(gson.fromJson(line, GameResult.class));
+                        } catch (JsonParseException e) {
+                            if (next != null) {
+                                throw new IOException("Corrupt result in partition " + file, e);
+                            }
+                            // Only the last line can be torn by a crash during an append
+                            Logger.warn("Ignoring incomplete last result in partition {}", file);
+                        }
+                    }
+                    line = next;
+                }
+            }
+            return results;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != COMPACT_MAGIC) {
+                throw new IOException("Not a compacted partition: " + file);
+            }
+            int count = in.readInt();
+            for (var i = 0; i < count; i++) {
+                // Arguments are evaluated left to right, in the order of the fields in the file
+                var result = new GameResult(readString(in), in.readBoolean(), in.readInt(), in.readLong(),
+                        readString(in));
+                if (solvedOnly && (!result.isSolved() || result.getNumberOfMoves() > maxMoves)) {
+                    break;
+                }
+                results.add(result);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated partition: " + file, e);
+        }
+        return results;
+    }
+
+    private void compact(Partition partition) throws IOException {
+        if (partition.compacted) {
+            return;
+        }
+        List<GameResult> results = read(partition, false, Integer.MAX_VALUE);
+        // Solved results first, by number of moves; the sort is stable so equal results keep their order
+        results.sort(Comparator.comparing((GameResult r) -> !r.isSolved())
+                .thenComparingInt(r -> r.isSolved() ? r.getNumberOfMoves() : 0));
+        String name = partition.name.replace(".jsonl", ".bin");
+        AtomicFiles.write(directory.resolve(name), stream -> {
+            var out = new DataOutputStream(stream);
+            out.writeInt(COMPACT_MAGIC);
+            out.writeInt(results.size());
+            for (GameResult result : results) {
+                writeString(out, result.getNameOfPlayer());
+                out.writeBoolean(result.isSolved());
+                out.writeInt(result.getNumberOfMoves());
+                out.writeLong(result.getDurationNanos());
+                writeString(out, result.getMoves());
+            }
+            out.flush();
+        });
+        String old = partition.name;
+        partition.name = name;
+        partition.compacted = true;
+        partition.bytes = Files.size(directory.resolve(name));
+        // The manifest must point at the compacted file before the original is removed
+        writeManifest();
+        Files.deleteIfExists(directory.resolve(old));
+        Logger.info("Compacted partition {} into {}", old, name);
+    }
+
+    /**
+     * Writes a string as its length in UTF-8 bytes followed by the bytes, {@code -1} for {@code null}. Unlike
+     * {@link DataOutputStream#writeUTF(String)} this is not limited to 65535 bytes.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Partition> readManifest() throws IOException {
+        List<Partition> result = new ArrayList<>();
+        Path file = directory.resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            return result;
+        }
+        try (var reader = new JsonReader(Files.newBufferedReader(file))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                var partition = new Partition();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "name" -> partition.name = reader.nextString();
+                        case "day" -> partition.day = LocalDate.parse(reader.nextString());
+                        case "compacted" -> partition.compacted = reader.nextBoolean();
+                        case "count" -> partition.count = reader.nextInt();
+                        case "solvedCount" -> partition.solvedCount = reader.nextInt();
+                        case "minMoves" -> partition.minMoves = reader.nextInt();
+                        case "bytes" -> partition.bytes = reader.nextLong();
+                        default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                result.add(partition);
+            }
+            reader.endArray();
+        }
+        return result;
+    }
+
+    private void writeManifest() throws IOException {
+        AtomicFiles.writeText(directory.resolve(MANIFEST), out -> {
+            var writer = new JsonWriter(out);
+            writer.setIndent("  ");
+            writer.beginArray();
+            for (Partition partition : partitions) {
+                writer.beginObject();
+                writer.name("name").value(partition.name);
+                writer.name("day").value(partition.day.toString());
+                writer.name("compacted").value(partition.compacted);
+                writer.name("count").value(partition.count);
+                writer.name("solvedCount").value(partition.solvedCount);
+                writer.name("minMoves").value(partition.minMoves);
+                writer.name("bytes").value(partition.bytes);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.flush();
+        });
+    }
+}
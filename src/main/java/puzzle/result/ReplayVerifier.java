@@ -0,0 +1,227 @@
+package puzzle.result;
+
+import com.google.gson.Gson;
+import lombok.NonNull;
+import org.tinylog.Logger;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that the number of moves and the solved flag claimed by a {@link GameResult} match the moves
+ * recorded with it.
+ * <p>
+ * The moves are written as four digits per move: the row and column of the square the coin is moved from,
+ * followed by the row and column of the square it is moved to, e.g. {@code "11012111"} for the moves
+ * (1, 1) &rarr; (0, 1) and (2, 1) &rarr; (1, 1). Replaying works on the packed board of {@link Bitboard} and
+ * reads the digits in place, so checking a game allocates nothing. Files of results are checked in
+ * parallel, one JSON object per line, as written by {@link PartitionedGameResultManager}.
+ */
+public class ReplayVerifier {
+
+    private static final int CHARS_PER_MOVE = 4;
+
+    /**
+     * The outcome of checking a result.
+     */
+    public enum Verdict {
+        /**
+         * The moves are legal and match the claimed number of moves and solved flag.
+         */
+        VALID,
+        /**
+         * No moves were recorded with the result.
+         */
+        NOT_RECORDED,
+        /**
+         * The result or its moves could not be read.
+         */
+        MALFORMED,
+        /**
+         * One of the moves breaks the rules of the puzzle.
+         */
+        ILLEGAL_MOVE,
+        /**
+         * The claimed number of moves differs from the number of moves recorded.
+         */
+        MOVE_COUNT_MISMATCH,
+        /**
+         * The claimed solved flag differs from the position reached by the moves.
+         */
+        SOLVED_MISMATCH
+    }
+
+    /**
+     * Summary of checking a file of results.
+     *
+     * @param results the number of results checked
+     * @param moves the number of moves replayed
+     * @param verdicts the number of results with each verdict
+     */
+    public record Report(long results, long moves, Map<Verdict, Long> verdicts) {
+
+        /**
+         * Returns the number of results with the specified verdict.
+         *
+         * @param verdict the verdict
+         * @return the number of results
+         */
+        public long count(Verdict verdict) {
+            return verdicts.getOrDefault(verdict, 0L);
+        }
+    }
+
+    private final Bitboard bitboard;
+    private final long start;
+    private final Gson gson = JsonGameResultManager.createGson();
+
+    /**
+     * Creates a verifier of games of the standard puzzle.
+     */
+    public ReplayVerifier() {
+        this(Bitboard.STANDARD, new CoinState().getCoins());
+    }
+
+    /**
+     * Creates a verifier of games played on the specified board from the specified position.
+     *
+     * @param bitboard the rules of the board
+     * @param start the coins on the board when the game starts
+     */
+    public ReplayVerifier(@NonNull Bitboard bitboard, long start) {
+        if (bitboard.size() > 10) {
+            throw new IllegalArgumentException("Board too large for single digit coordinates: " + bitboard.size());
+        }
+        this.bitboard = bitboard;
+        this.start = start;
+    }
+
+    /**
+     * Writes moves in the notation read by the verifier.
+     *
+     * @param bitboard the rules of the board the moves were made on
+     * @param moves the moves packed by {@link Bitboard#packMove(int, int)}
+     * @return the moves, four digits per move
+     */
+    public static String encode(@NonNull Bitboard bitboard, @NonNull int[] moves) {
+        var text = new StringBuilder(moves.length * CHARS_PER_MOVE);
+        for (int move : moves) {
+            int from = Bitboard.from(move);
+            int to = Bitboard.to(move);
+            text.append(bitboard.row(from)).append(bitboard.col(from))
+                    .append(bitboard.row(to)).append(bitboard.col(to));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Checks a result against the moves recorded with it.
+     *
+     * @param result the result to check
+     * @return the verdict
+     */
+    public Verdict verify(@NonNull GameResult result) {
+        if (result.getMoves() == null) {
+            return Verdict.NOT_RECORDED;
+        }
+        return verify(result.getMoves(), result.getNumberOfMoves(), result.isSolved());
+    }
+
+    /**
+     * Replays moves and checks that they match the claimed number of moves and solved flag.
+     *
+     * @param moves the moves, four digits per move
+     * @param numberOfMoves the claimed number of moves
+     * @param solved the claimed solved flag
+     * @return the verdict
+     */
+    public Verdict verify(@NonNull CharSequence moves, int numberOfMoves, boolean solved) {
+        int length = moves.length();
+        if (length % CHARS_PER_MOVE != 0) {
+            return Verdict.MALFORMED;
+        }
+        int size = bitboard.size();
+        long coins = start;
+        for (var i = 0; i < length; i += CHARS_PER_MOVE) {
+            int fromRow = moves.charAt(i) - '0';
+            int fromCol = moves.charAt(i + 1) - '0';
+            int toRow = moves.charAt(i + 2) - '0';
+            int toCol = moves.charAt(i + 3) - '0';
+            // Rejects characters other than digits as well as squares off the board
+            if ((fromRow | fromCol | toRow | toCol) < 0
+                    || Math.max(Math.max(fromRow, fromCol), Math.max(toRow, toCol)) >= size) {
+                return Verdict.MALFORMED;
+            }
+            int from = bitboard.index(fromRow, fromCol);
+            int to = bitboard.index(toRow, toCol);
+            if (!bitboard.isLegalMove(coins, from, to)) {
+                return Verdict.ILLEGAL_MOVE;
+            }
+            coins = bitboard.move(coins, from, to);
+        }
+        if (length / CHARS_PER_MOVE != numberOfMoves) {
+            return Verdict.MOVE_COUNT_MISMATCH;
+        }
+        if (bitboard.isSolved(coins) != solved) {
+            return Verdict.SOLVED_MISMATCH;
+        }
+        return Verdict.VALID;
+    }
+
+    /**
+     * Checks every result of a file holding one result per line, streaming the file and using every core.
+     * Empty lines are skipped.
+     *
+     * @param file the file of results
+     * @return the summary of the check
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public Report verifyAll(@NonNull Path file) throws IOException {
+        var counts = new LongAdder[Verdict.values().length];
+        for (var i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+        var moves = new LongAdder();
+        // Files.lines splits a UTF-8 file into ranges of lines, so the parallel stream reads it in parallel too
+        try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.parallel()
+                    .filter(line -> !line.isBlank())
+                    .forEach(line -> {
+                        Verdict verdict;
+                        try {
+                            GameResult result = gson.fromJson(line, GameResult.class);
+                            verdict = result == null ? Verdict.MALFORMED : verify(result);
+                            if (result != null && result.getMoves() != null) {
+                                moves.add(result.getMoves().length() / CHARS_PER_MOVE);
+                            }
+                        } catch (RuntimeException e) {
+                            // Not only malformed JSON: a fractional number or a bad duration throws as well
+                            verdict = Verdict.MALFORMED;
+                        }
+                        counts[verdict.ordinal()].increment();
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        var verdicts = new EnumMap<Verdict, Long>(Verdict.class);
+        long results = 0;
+        for (Verdict verdict : Verdict.values()) {
+            long count = counts[verdict.ordinal()].sum();
+            if (count > 0) {
+                verdicts.put(verdict, count);
+                results += count;
+            }
+        }
+        Logger.info("Verified {} results with {} moves from {}: {}", results, moves.sum(), file, verdicts);
+        return new Report(results, moves.sum(), Collections.unmodifiableMap(verdicts));
+    }
+}
@@ -0,0 +1,182 @@
+package puzzle.result;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index over the game results of a {@link GameResultManager}.
+ * <p>
+ * The results are read once when the index is created. After that the solved results are kept
+ * sorted by the number of moves, and statistics are kept per player, so that queries do not touch
+ * the results file. Every change increments {@link #getVersion()}, which can be used as an entity tag.
+ * The version starts from the time the index was created, so that the versions of an index created after a
+ * restart, possibly over other results, do not repeat those handed out before.
+ */
+public class ResultIndex {
+
+    /**
+     * The number of low bits of the version counting changes; the bits above hold the creation time in
+     * milliseconds.
+     */
+    private static final int VERSION_BITS = 20;
+
+    private static final Comparator<GameResult> BY_MOVES = Comparator.comparingInt(GameResult::getNumberOfMoves);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<GameResult> solvedByMoves = new ArrayList<>();
+    private final Map<String, PlayerStats> players = new HashMap<>();
+    private int size;
+    private long version = System.currentTimeMillis() << VERSION_BITS;
+
+    /**
+     * Statistics of a single player.
+     *
+     * @param nameOfPlayer name of the player
+     * @param games number of games played
+     * @param solved number of games solved
+     * @param bestMoves the least number of moves in a solved game, or {@code 0} if no game was solved
+     * @param totalDurationNanos the total duration of all games in nanoseconds
+     */
+    public record PlayerStats(String nameOfPlayer, int games, int solved, int bestMoves, long totalDurationNanos) {
+
+        private PlayerStats with(GameResult result) {
+            int best = bestMoves;
+            if (result.isSolved() && (solved == 0 || result.getNumberOfMoves() < bestMoves)) {
+                best = result.getNumberOfMoves();
+            }
+            return new PlayerStats(nameOfPlayer, games + 1, solved + (result.isSolved() ? 1 : 0), best,
+                    totalDurationNanos + result.getDurationNanos());
+        }
+    }
+
+    /**
+     * Constructs an index from all results of the specified manager.
+     *
+     * @param manager the manager whose results are indexed
+     * @throws IOException if the results cannot be read
+     */
+    public ResultIndex(@NonNull GameResultManager manager) throws IOException {
+        this(manager.getAll());
+    }
+
+    /**
+     * Constructs an index of the specified results.
+     *
+     * @param results the results to index
+     */
+    public ResultIndex(@NonNull List<GameResult> results) {
+        for (var result : results) {
+            index(result);
+        }
+        solvedByMoves.sort(BY_MOVES);
+    }
+
+    /**
+     * Adds a result to the index.
+     *
+     * @param result the result to add
+     */
+    public void add(@NonNull GameResult result) {
+        lock.writeLock().lock();
+        try {
+            if (result.isSolved()) {
+                int i = Collections.binarySearch(solvedByMoves, result, BY_MOVES);
+                // Insert after results with the same number of moves, like a stable sort would
+                i = i < 0 ? -i - 1 : i;
+                while (i < solvedByMoves.size() && solvedByMoves.get(i).getNumberOfMoves() == result.getNumberOfMoves()) {
+                    i++;
+                }
+                solvedByMoves.add(i, result);
+            }
+            updatePlayer(result);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the solved results with the least number of moves, like {@link GameResultManager#getBest(int)}.
+     *
+     * @param limit the maximum number of results
+     * @return the best results
+     */
+    public List<GameResult> getBest(int limit) {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(solvedByMoves.subList(0, Math.min(limit, solvedByMoves.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the statistics of a player.
+     *
+     * @param nameOfPlayer name of the player
+     * @return the statistics of the player, or an empty optional if the player has no results
+     */
+    public Optional<PlayerStats> getPlayerStats(String nameOfPlayer) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(players.get(nameOfPlayer));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed results.
+     *
+     * @return the number of results
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the version of the index, which is incremented whenever a result is added. Indexes created at
+     * different times start from different versions.
+     *
+     * @return the version of the index
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(GameResult result) {
+        if (result.isSolved()) {
+            solvedByMoves.add(result);
+        }
+        updatePlayer(result);
+    }
+
+    private void updatePlayer(GameResult result) {
+        PlayerStats stats = players.get(result.getNameOfPlayer());
+        if (stats == null) {
+            stats = new PlayerStats(result.getNameOfPlayer(), 0, 0, 0, 0);
+        }
+        players.put(result.getNameOfPlayer(), stats.with(result));
+        size++;
+    }
+}
@@ -0,0 +1,394 @@
+package puzzle.result;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Imports and exports results in bulk, for migrations and backfills.
+ * <p>
+ * An import reads any number of files, drops the results that are already stored or appear more than once,
+ * and hands the rest to the target with a single {@link GameResultManager#addAll(List)} call, so a
+ * {@link JsonGameResultManager} rewrites its file once instead of once per result. JSON Lines files are cut
+ * into chunks at line breaks and the chunks are parsed in parallel; JSON files, an array of results as written
+ * by {@link JsonGameResultManager}, are read with a streaming parser. Lines and array elements that are not a
+ * valid result are counted and skipped; a JSON file that is not valid JSON fails the import.
+ * <p>
+ * An import holds everything in memory: the stored results, the set used to find duplicates, the new results
+ * and, for a {@link JsonGameResultManager}, the list it rewrites its file from. Ten million distinct results
+ * imported into an empty JSON store take about a minute with a heap of 2.5 GB and crawl below 2 GB; split
+ * larger imports.
+ * <p>
+ * An export streams the results to a JSON, JSON Lines or CSV file, replacing it atomically.
+ */
+public class ResultTransfer {
+
+    /**
+     * The file formats of results.
+     */
+    public enum Format {
+
+        /**
+         * A JSON array of results, as stored by {@link JsonGameResultManager}.
+         */
+        JSON,
+
+        /**
+         * One JSON object per line.
+         */
+        JSON_LINES,
+
+        /**
+         * Comma-separated values with a header line, quoted as in RFC 4180. Export only.
+         */
+        CSV;
+
+        /**
+         * Returns the format of a file from its extension: {@code .jsonl}, {@code .csv}, otherwise JSON.
+         *
+         * @param file the file
+         * @return the format of the file
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSON_LINES;
+            }
+            return name.endsWith(".csv") ? CSV : JSON;
+        }
+    }
+
+    /**
+     * The outcome of an import.
+     *
+     * @param read the number of results read from the files
+     * @param malformed the number of records that could not be parsed
+     * @param duplicates the number of results already stored or read before
+     * @param imported the number of results added to the target
+     */
+    public record ImportReport(long read, long malformed, long duplicates, long imported) {
+    }
+
+    /**
+     * The default size of the chunks of a JSON Lines file parsed in parallel.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    private static final String CSV_HEADER = "nameOfPlayer,solved,numberOfMoves,duration,moves";
+
+    private final GameResultTypeAdapter adapter = new GameResultTypeAdapter();
+    private final int chunkSize;
+
+    /**
+     * Creates a transfer cutting JSON Lines files into chunks of the default size.
+     */
+    public ResultTransfer() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a transfer cutting JSON Lines files into chunks of the specified size.
+     *
+     * @param chunkSize the size of the chunks in bytes
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public ResultTransfer(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the results of files into a store.
+     *
+     * @param target the store to add the results to
+     * @param sources the files to read, in JSON or JSON Lines format by their extension
+     * @return the numbers of results read, skipped and imported
+     * @throws IOException if a file cannot be read or is not valid JSON, or the store cannot be written
+     * @throws IllegalArgumentException if a file is in CSV format
+     */
+    public ImportReport importAll(@NonNull GameResultManager target, @NonNull List<Path> sources) throws IOException {
+        var malformed = new LongAdder();
+        var seen = new HashSet<>(target.getAll());
+        List<GameResult> results = new ArrayList<>();
+        long read = 0;
+        for (Path source : sources) {
+            List<GameResult> parsed = switch (Format.of(source)) {
+                case JSON -> readJson(source, malformed);
+                case JSON_LINES -> readJsonLines(source, malformed);
+                case CSV -> throw new IllegalArgumentException("Cannot import CSV: " + source);
+            };
+            read += parsed.size();
+            for (GameResult result : parsed) {
+                if (seen.add(result)) {
+                    results.add(result);
+                }
+            }
+        }
+        if (!results.isEmpty()) {
+            target.addAll(results);
+        }
+        var report = new ImportReport(read, malformed.sum(), read - results.size(), results.size());
+        Logger.info("Imported {} of {} results from {} files, {} duplicates, {} malformed", report.imported(),
+                report.read(), sources.size(), report.duplicates(), report.malformed());
+        return report;
+    }
+
+    private List<GameResult> readJson(Path source, LongAdder malformed) throws IOException {
+        List<GameResult> results = new ArrayList<>();
+        try (var reader = new JsonReader(Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return results;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                // Each record is read as a tree first, so that a record of the wrong shape can be skipped
+                JsonElement element;
+                try {
+                    element = JsonParser.parseReader(reader);
+                } catch (JsonParseException e) {
+                    throw new IOException("Invalid JSON in " + source, e);
+                }
+                try {
+                    GameResult result = adapter.fromJsonTree(element);
+                    if (result != null) {
+                        results.add(result);
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    Logger.debug("Malformed result: {}", element);
+                }
+                malformed.increment();
+            }
+            reader.endArray();
+        }
+        return results;
+    }
+
+    private List<GameResult> readJsonLines(Path source, LongAdder malformed) throws IOException {
+        try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            try {
+                // The chunks are parsed in parallel, the ordered stream keeps the results in file order
+                return IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], malformed))
+                        .flatMap(List::stream)
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Cuts a file into chunks of about the chunk size, each ending after a line break or at the end of the file.
+     *
+     * @param channel the file
+     * @return the offsets of the chunks, followed by the size of the file
+     * @throws IOException if the file cannot be read
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        var buffer = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            // Moves the bound past the next line break, so that no line is split
+            long bound = -1;
+            for (long offset = position; bound < 0 && offset < size; offset += buffer.limit()) {
+                buffer.clear();
+                channel.read(buffer, offset);
+                buffer.flip();
+                for (var i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        bound = offset + i + 1;
+                        break;
+                    }
+                }
+            }
+            if (bound < 0 || bound >= size) {
+                break;
+            }
+            bounds.add(bound);
+            position = bound + chunkSize;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private List<GameResult> parseChunk(FileChannel channel, long start, long end, LongAdder malformed) {
+        var buffer = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        List<GameResult> results = new ArrayList<>();
+        text.lines().forEach(line -> {
+            if (line.isBlank()) {
+                return;
+            }
+            try {
+                GameResult result = adapter.fromJson(line);
+                if (result != null) {
+                    results.add(result);
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                Logger.debug("Malformed result: {}", line);
+            }
+            malformed.increment();
+        });
+        return results;
+    }
+
+    /**
+     * Exports the results of a store to a file.
+     *
+     * @param source the store to read the results from
+     * @param target the file to write, replaced atomically
+     * @param format the format of the file
+     * @return the number of results written
+     * @throws IOException if the store cannot be read or the file cannot be written
+     */
+    public long export(@NonNull GameResultManager source, @NonNull Path target, @NonNull Format format)
+            throws IOException {
+        return export(source.getAll(), target, format);
+    }
+
+    /**
+     * Exports results to a file.
+     *
+     * @param results the results to write
+     * @param target the file to write, replaced atomically
+     * @param format the format of the file
+     * @return the number of results written
+     * @throws IOException if the file cannot be written
+     */
+    public long export(@NonNull Iterable<GameResult> results, @NonNull Path target, @NonNull Format format)
+            throws IOException {
+        long[] count = new long[1];
+        AtomicFiles.writeText(target, writer -> {
+            switch (format) {
+                case JSON -> {
+                    var json = new JsonWriter(writer);
+                    json.beginArray();
+                    for (GameResult result : results) {
+                        adapter.write(json, result);
+                        count[0]++;
+                    }
+                    json.endArray();
+                    json.flush();
+                }
+                case JSON_LINES -> {
+                    for (GameResult result : results) {
+                        adapter.toJson(writer, result);
+                        writer.write('\n');
+                        count[0]++;
+                    }
+                }
+                case CSV -> {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                    for (GameResult result : results) {
+                        writeCsv(writer, result);
+                        count[0]++;
+                    }
+                }
+            }
+        });
+        Logger.info("Exported {} results to {} as {}", count[0], target, format);
+        return count[0];
+    }
+
+    private static void writeCsv(Writer writer, GameResult result) throws IOException {
+        writeCsvField(writer, result.getNameOfPlayer());
+        writer.write(',');
+        writer.write(Boolean.toString(result.isSolved()));
+        writer.write(',');
+        writer.write(Integer.toString(result.getNumberOfMoves()));
+        writer.write(',');
+        writer.write(Duration.ofNanos(result.getDurationNanos()).toString());
+        writer.write(',');
+        if (result.getMoves() != null) {
+            writer.write(result.getMoves());
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        // A result imported without a name is written with an empty name, like one without moves
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Imports or exports results and reports the throughput.
+     * <p>
+     * Usage: {@code ResultTransfer import store.json source...} or {@code ResultTransfer export store.json target},
+     * the format of the files given by their extension.
+     *
+     * @param args the command and the files
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !args[0].equals("import") && !args[0].equals("export")) {
+            System.err.println("Usage: ResultTransfer import store.json source... | export store.json target");
+            System.exit(2);
+        }
+        var store = new JsonGameResultManager(Path.of(args[1]));
+        var transfer = new ResultTransfer();
+        long start = System.nanoTime();
+        long count;
+        if (args[0].equals("import")) {
+            List<Path> sources = new ArrayList<>();
+            for (var i = 2; i < args.length; i++) {
+                sources.add(Path.of(args[i]));
+            }
+            count = transfer.importAll(store, sources).read();
+        } else {
+            Path target = Path.of(args[2]);
+            count = transfer.export(store, target, Format.of(target));
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d results in %.1f s (%.0f results/s)%n", count, elapsed / 1e9, count * 1e9 / elapsed);
+    }
+}
@@ -9,6 +9,26 @@
  *         gets the best 10 puzzle solvers.</li>
  *         <li>{@link puzzle.result.JsonGameResultManager}: An implementation of {@link puzzle.result.GameResultManager}
  *         that stores the results of puzzle game in a JSON file.</li>
+ *         <li>{@link puzzle.result.PartitionedGameResultManager}: An implementation of {@link puzzle.result.GameResultManager}
+ *         that stores the results in daily or size-limited partitions described by a manifest.</li>
+ *         <li>{@link puzzle.result.LogGameResultManager}: An implementation of {@link puzzle.result.GameResultManager}
+ *         that appends checksummed records to a log and recovers only the tail of the log after a crash.</li>
+ *         <li>{@link puzzle.result.AtomicFiles}: Replaces files through a temporary file, so that a crash
+ *         leaves either the old or the new content.</li>
+ *         <li>{@link puzzle.result.InstrumentedGameResultManager}: Records the latency of the operations of another
+ *         {@link puzzle.result.GameResultManager}.</li>
+ *         <li>{@link puzzle.result.AsyncGameResultWriter}: Writes game results on a background thread,
+ *         coalescing results that arrive while a write is in progress.</li>
+ *         <li>{@link puzzle.result.GameResultTypeAdapter}: A streaming Gson adapter that reads and writes
+ *         {@link puzzle.result.GameResult} without reflection.</li>
+ *         <li>{@link puzzle.result.ResultIndex}: Keeps the results in memory, sorted for the leaderboard
+ *         and summarised per player.</li>
+ *         <li>{@link puzzle.result.LeaderboardServer}: An embedded HTTP service serving the leaderboard,
+ *         player statistics and result submission from a {@link puzzle.result.ResultIndex}.</li>
+ *         <li>{@link puzzle.result.ReplayVerifier}: Replays the moves recorded with results to check the
+ *         claimed number of moves and solved flag.</li>
+ *         <li>{@link puzzle.result.ResultTransfer}: Imports results in bulk, parsing files in parallel and
+ *         removing duplicates, and exports them as JSON, JSON Lines or CSV.</li>
  *         <li>{@link puzzle.result.Main}: Contains a main method for testing by generating random game results and stores
  *         them using {@link puzzle.result.JsonGameResultManager}</li>
  *     </ul>
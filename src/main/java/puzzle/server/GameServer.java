@@ -0,0 +1,214 @@
+package puzzle.server;
+
+import org.tinylog.Logger;
+import puzzle.metrics.Metrics;
+import puzzle.metrics.Timer;
+import puzzle.model.Bitboard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless server hosting many games at once over a line-based protocol on a local socket.
+ * <p>
+ * Every connection gets its own {@link GameSession} and its own virtual thread, so thousands of players can be
+ * connected while blocking on their sockets. The server listens on the loopback interface only. Squares are
+ * given as row and column; the server answers every command with one line:
+ * <ul>
+ *     <li>{@code MOVE r1 c1 r2 c2}: moves the coin, answers with the state or {@code ERR illegal move}</li>
+ *     <li>{@code UNDO}: takes back the last move, answers with the state or {@code ERR nothing to undo}</li>
+ *     <li>{@code HINT}: answers {@code OK r1 c1 r2 c2} with a move of an optimal solution, or {@code ERR no hint}</li>
+ *     <li>{@code STATE}: answers with the state</li>
+ *     <li>{@code RESTART}: starts the game again, answers with the state</li>
+ *     <li>{@code QUIT}: answers {@code BYE} and closes the connection</li>
+ * </ul>
+ * The state is {@code OK board moves status distance}, where {@code board} is the packed board of
+ * {@link Bitboard} in hexadecimal, {@code status} is a {@link GameSession.Status} and {@code distance} is the
+ * least number of moves to the goal, {@code -1} if it cannot be reached. The state is also sent when a
+ * connection is opened.
+ */
+public class GameServer implements AutoCloseable {
+
+    private static final Timer COMMANDS = Metrics.timer("server.commands");
+
+    private final SessionManager sessions;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs a server on the specified port of the loopback interface. The server is not started.
+     *
+     * @param sessions the manager of the sessions
+     * @param port the port to listen on, {@code 0} for any free port
+     * @throws IOException if the server cannot be bound
+     */
+    public GameServer(SessionManager sessions, int port) throws IOException {
+        this.sessions = sessions;
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        // A platform thread, so that the server keeps the JVM alive
+        Thread.ofPlatform().name("game-server-accept").start(this::acceptLoop);
+        Logger.info("Game server listening on port {}", getPort());
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     *
+     * @throws IOException if an I/O error occurs while closing the server socket
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.submit(() -> serve(socket));
+            } catch (SocketException e) {
+                // The server socket was closed
+                return;
+            } catch (IOException e) {
+                Logger.error(e, "Could not accept a connection");
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        GameSession session = sessions.create();
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            writeLine(out, state(session));
+            String line;
+            while ((line = in.readLine()) != null) {
+                long start = COMMANDS.start();
+                String response = handle(session, line.trim());
+                COMMANDS.stop(start);
+                writeLine(out, response);
+                if (response.equals("BYE")) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            Logger.debug("Connection of session {} closed: {}", session.getId(), e.getMessage());
+        } finally {
+            sessions.remove(session.getId());
+        }
+    }
+
+    private static void writeLine(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Executes a command of the protocol on a session.
+     *
+     * @param session the session of the connection
+     * @param command the command line
+     * @return the response line
+     */
+    private String handle(GameSession session, String command) {
+        String[] words = command.split("\\s+");
+        return switch (words[0].toUpperCase()) {
+            case "MOVE" -> move(session, words);
+            case "UNDO" -> session.undo() ? state(session) : "ERR nothing to undo";
+            case "HINT" -> hint(session);
+            case "STATE" -> state(session);
+            case "RESTART" -> {
+                session.restart();
+                yield state(session);
+            }
+            case "QUIT" -> "BYE";
+            default -> "ERR unknown command";
+        };
+    }
+
+    private String move(GameSession session, String[] words) {
+        if (words.length != 5) {
+            return "ERR usage: MOVE r1 c1 r2 c2";
+        }
+        Bitboard bitboard = sessions.getBitboard();
+        int[] squares = new int[4];
+        for (var i = 0; i < squares.length; i++) {
+            try {
+                squares[i] = Integer.parseInt(words[i + 1]);
+            } catch (NumberFormatException e) {
+                return "ERR usage: MOVE r1 c1 r2 c2";
+            }
+        }
+        if (!bitboard.isOnBoard(squares[0], squares[1]) || !bitboard.isOnBoard(squares[2], squares[3])) {
+            return "ERR illegal move";
+        }
+        int from = bitboard.index(squares[0], squares[1]);
+        int to = bitboard.index(squares[2], squares[3]);
+        return session.move(from, to) ? state(session) : "ERR illegal move";
+    }
+
+    private String hint(GameSession session) {
+        int move = session.hint();
+        if (move < 0) {
+            return "ERR no hint";
+        }
+        Bitboard bitboard = sessions.getBitboard();
+        int from = Bitboard.from(move);
+        int to = Bitboard.to(move);
+        return "OK " + bitboard.row(from) + " " + bitboard.col(from) + " " + bitboard.row(to) + " " + bitboard.col(to);
+    }
+
+    private static String state(GameSession session) {
+        return "OK " + Long.toHexString(session.getCoins()) + " " + session.getMoveCount() + " "
+                + session.getStatus() + " " + session.getDistance();
+    }
+
+    /**
+     * Starts a server for the standard puzzle.
+     * <p>
+     * Usage: {@code GameServer [port]}, 7070 by default.
+     *
+     * @param args the port to listen on
+     * @throws IOException if the server cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        Metrics.registerMBeans();
+        var server = new GameServer(new SessionManager(), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                Logger.error(e, "Could not stop the game server");
+            }
+        }));
+        server.start();
+    }
+}
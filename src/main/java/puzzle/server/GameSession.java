@@ -0,0 +1,150 @@
+package puzzle.server;
+
+import puzzle.model.Bitboard;
+import puzzle.solver.DistanceTable;
+
+import java.util.Arrays;
+
+/**
+ * State of one game played on the {@link GameServer}.
+ * <p>
+ * A session holds nothing but the packed board, see {@link Bitboard}, and a stack of the packed moves made.
+ * The rules and the distances to the goal come from the {@link SessionManager} and are shared by all
+ * sessions. A session is used by one connection at a time and is not thread-safe.
+ */
+public class GameSession {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The state of the game.
+     */
+    public enum Status {
+        /**
+         * Moves can be made.
+         */
+        PLAYING,
+        /**
+         * All corners hold a coin.
+         */
+        SOLVED,
+        /**
+         * No coin can be moved.
+         */
+        GAME_OVER
+    }
+
+    private final long id;
+    private final Bitboard bitboard;
+    private final DistanceTable distances;
+    private final long start;
+    private long coins;
+    private char[] moves = new char[INITIAL_CAPACITY];
+    private int moveCount;
+
+    GameSession(long id, Bitboard bitboard, DistanceTable distances, long start) {
+        this.id = id;
+        this.bitboard = bitboard;
+        this.distances = distances;
+        this.start = start;
+        this.coins = start;
+    }
+
+    /**
+     * Returns the identifier of the session.
+     *
+     * @return the identifier
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the coins on the board.
+     *
+     * @return the packed board
+     */
+    public long getCoins() {
+        return coins;
+    }
+
+    /**
+     * Returns the number of moves made.
+     *
+     * @return the number of moves
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns the state of the game.
+     *
+     * @return the state of the game
+     */
+    public Status getStatus() {
+        if (bitboard.isSolved(coins)) {
+            return Status.SOLVED;
+        }
+        return bitboard.isGameOver(coins) ? Status.GAME_OVER : Status.PLAYING;
+    }
+
+    /**
+     * Returns the least number of moves needed to solve the puzzle from the current position.
+     *
+     * @return the number of moves, or {@link DistanceTable#UNSOLVABLE}
+     */
+    public int getDistance() {
+        return distances.distance(coins);
+    }
+
+    /**
+     * Makes a move if it is legal and the game has not ended.
+     *
+     * @param from the index of the square the coin is moved from
+     * @param to the index of the square the coin is moved to
+     * @return {@code true} if the move was made, {@code false} if it is illegal
+     */
+    public boolean move(int from, int to) {
+        if (bitboard.isSolved(coins) || !bitboard.isLegalMove(coins, from, to)) {
+            return false;
+        }
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveCount++] = (char) Bitboard.packMove(from, to);
+        coins = bitboard.move(coins, from, to);
+        return true;
+    }
+
+    /**
+     * Takes back the last move.
+     *
+     * @return {@code true} if a move was taken back, {@code false} if no move has been made
+     */
+    public boolean undo() {
+        if (moveCount == 0) {
+            return false;
+        }
+        int move = moves[--moveCount];
+        coins = bitboard.move(coins, Bitboard.to(move), Bitboard.from(move));
+        return true;
+    }
+
+    /**
+     * Returns a move on an optimal solution from the current position.
+     *
+     * @return the move packed by {@link Bitboard#packMove(int, int)}, or {@code -1} if there is none
+     */
+    public int hint() {
+        return distances.bestMove(coins);
+    }
+
+    /**
+     * Starts the game again from the start position.
+     */
+    public void restart() {
+        coins = start;
+        moveCount = 0;
+    }
+}
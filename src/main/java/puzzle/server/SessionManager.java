@@ -0,0 +1,96 @@
+package puzzle.server;
+
+import puzzle.metrics.Counter;
+import puzzle.metrics.Metrics;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.solver.DistanceTable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the sessions of the {@link GameServer} and the read-only tables they share.
+ * <p>
+ * The rules of the board, with their precomputed move rays, and the {@link DistanceTable} exist once, however
+ * many sessions there are. Sessions can be created and removed from any thread.
+ */
+public class SessionManager {
+
+    private static final Counter SESSIONS_CREATED = Metrics.counter("server.sessionsCreated");
+
+    private final Bitboard bitboard;
+    private final DistanceTable distances;
+    private final long start;
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Creates a manager of sessions of the standard puzzle.
+     */
+    public SessionManager() {
+        this(DistanceTable.standard(), new CoinState().getCoins());
+    }
+
+    /**
+     * Creates a manager of sessions played with the specified table from the specified position.
+     *
+     * @param distances the distances to the goal, also giving the rules of the board
+     * @param start the coins on the board at the start of a game
+     */
+    public SessionManager(DistanceTable distances, long start) {
+        this.bitboard = distances.getBitboard();
+        this.distances = distances;
+        this.start = start;
+    }
+
+    /**
+     * Returns the rules of the board shared by the sessions.
+     *
+     * @return the rules of the board
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Creates a session at the start position.
+     *
+     * @return the new session
+     */
+    public GameSession create() {
+        var session = new GameSession(nextId.getAndIncrement(), bitboard, distances, start);
+        sessions.put(session.getId(), session);
+        SESSIONS_CREATED.increment();
+        return session;
+    }
+
+    /**
+     * Returns a session.
+     *
+     * @param id the identifier of the session
+     * @return the session, or {@code null} if there is no session with the identifier
+     */
+    public GameSession get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Removes a session.
+     *
+     * @param id the identifier of the session
+     */
+    public void remove(long id) {
+        sessions.remove(id);
+    }
+
+    /**
+     * Returns the number of sessions.
+     *
+     * @return the number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
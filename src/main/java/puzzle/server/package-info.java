@@ -0,0 +1,17 @@
+/**
+ * Contains a headless server hosting many games at once over a local socket.
+ *
+ * <p>This package has:
+ * <ul>
+ *     <li>
+ *         {@link puzzle.server.GameServer}: Accepts connections and runs each session on its own virtual thread.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.server.SessionManager}: Keeps the sessions and the read-only tables they share.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.server.GameSession}: A game held as a packed board and a stack of moves.
+ *     </li>
+ * </ul>
+ */
+package puzzle.server;
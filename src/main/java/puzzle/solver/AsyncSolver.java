@@ -0,0 +1,417 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.metrics.SolverLevelEvent;
+import puzzle.metrics.SolverRunEvent;
+import puzzle.model.Bitboard;
+import puzzle.model.PlacementIndex;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Solves the puzzle on a background thread, reporting progress while it runs and stopping when cancelled or
+ * when a budget of time or nodes is used up.
+ * <p>
+ * The search is a breadth-first search from the start position, so a solution it finds is optimal. Progress is
+ * published after every level and every {@value #PROGRESS_INTERVAL} nodes to the subscriber given to
+ * {@link #solve(long, Budget, Flow.Subscriber)}, which is subscribed before the search starts, and to the later
+ * subscribers of {@link Search#progress()}; a slow subscriber misses reports instead of slowing down the
+ * search. When the search stops before it finds a solution, the result still holds the best position seen so
+ * far, the one with the most coins on corners and the fewest moves, and the moves leading to it.
+ * <p>
+ * The move that reached every discovered position is stored by the rank of the position, see
+ * {@link PlacementIndex}, in an array with one {@code int} per placement of the coins, like the distances of a
+ * {@link DistanceTable}.
+ */
+public final class AsyncSolver {
+
+    /**
+     * The number of expanded nodes between two progress reports within a level.
+     */
+    public static final int PROGRESS_INTERVAL = 1 << 16;
+
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private static final int NO_MOVE = -1;
+
+    private static final int UNDISCOVERED = -2;
+
+    /**
+     * Limits on a search.
+     *
+     * @param time the longest time the search may run, {@code null} for no limit
+     * @param nodes the largest number of nodes the search may expand, {@link Long#MAX_VALUE} for no limit
+     */
+    public record Budget(Duration time, long nodes) {
+
+        /**
+         * A budget without limits.
+         */
+        public static final Budget UNLIMITED = new Budget(null, Long.MAX_VALUE);
+
+        /**
+         * Creates limits on a search.
+         *
+         * @throws IllegalArgumentException if the time is negative or the number of nodes is negative
+         */
+        public Budget {
+            if (time != null && time.isNegative() || nodes < 0) {
+                throw new IllegalArgumentException("Invalid budget: " + time + ", " + nodes + " nodes");
+            }
+        }
+
+        /**
+         * Returns a budget of time.
+         *
+         * @param time the longest time the search may run
+         * @return the budget
+         */
+        public static Budget ofTime(Duration time) {
+            return new Budget(time, Long.MAX_VALUE);
+        }
+
+        /**
+         * Returns a budget of nodes.
+         *
+         * @param nodes the largest number of nodes the search may expand
+         * @return the budget
+         */
+        public static Budget ofNodes(long nodes) {
+            return new Budget(null, nodes);
+        }
+    }
+
+    /**
+     * A report of the progress of a search.
+     *
+     * @param depth the number of moves of the level being expanded
+     * @param nodes the number of nodes expanded so far
+     * @param frontierSize the number of positions in the level being expanded
+     * @param nodesPerSecond the average number of nodes expanded per second
+     * @param elapsed the time since the search started
+     */
+    public record Progress(int depth, long nodes, int frontierSize, double nodesPerSecond, Duration elapsed) {
+    }
+
+    /**
+     * How a search ended.
+     */
+    public enum Status {
+
+        /**
+         * A solution was found.
+         */
+        SOLVED,
+
+        /**
+         * Every reachable position was expanded without finding a solution.
+         */
+        UNSOLVABLE,
+
+        /**
+         * The search was cancelled.
+         */
+        CANCELLED,
+
+        /**
+         * The time budget was used up.
+         */
+        OUT_OF_TIME,
+
+        /**
+         * The node budget was used up.
+         */
+        OUT_OF_NODES
+    }
+
+    /**
+     * The result of a search.
+     *
+     * @param status how the search ended
+     * @param moves the moves of an optimal solution if the puzzle was solved, otherwise the moves leading to the
+     * best position seen, packed by {@link Bitboard#packMove(int, int)}
+     * @param position the position after the moves, packed as in {@link Bitboard}
+     * @param nodes the number of nodes expanded
+     * @param depth the number of moves of the deepest level reached
+     * @param elapsed the time the search ran
+     */
+    public record Result(Status status, int[] moves, long position, long nodes, int depth, Duration elapsed) {
+
+        /**
+         * Checks if the moves solve the puzzle.
+         *
+         * @return {@code true} if a solution was found
+         */
+        public boolean isSolved() {
+            return status == Status.SOLVED;
+        }
+    }
+
+    /**
+     * A running search.
+     */
+    public static final class Search {
+
+        private final SubmissionPublisher<Progress> progress;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        private Search(Executor executor) {
+            this.progress = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+        }
+
+        /**
+         * Returns the publisher of the progress reports. It completes when the search ends. A subscriber added
+         * here may miss the reports published before it was subscribed.
+         *
+         * @return the publisher of progress reports
+         */
+        public Flow.Publisher<Progress> progress() {
+            return progress;
+        }
+
+        /**
+         * Returns the future result of the search. Cancelling the future also cancels the search.
+         *
+         * @return the future result
+         */
+        public CompletableFuture<Result> result() {
+            return result;
+        }
+
+        /**
+         * Stops the search. The result completes with {@link Status#CANCELLED} and the best position seen.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private boolean isCancelled() {
+            return cancelled || result.isCancelled();
+        }
+    }
+
+    private static final ThreadFactory SEARCH_THREADS =
+            Thread.ofPlatform().name("async-solver-", 0).daemon().factory();
+
+    private final Bitboard bitboard;
+    private final Executor searchExecutor;
+    private final Executor progressExecutor;
+
+    /**
+     * Creates a solver running every search on a thread of its own and delivering progress on the common pool.
+     *
+     * @param bitboard the rules of the board
+     */
+    public AsyncSolver(Bitboard bitboard) {
+        this(bitboard, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver running every search on a thread of its own and delivering progress on the specified
+     * executor. A long search does not occupy a thread of the executor, so it cannot hold up its own subscribers.
+     *
+     * @param bitboard the rules of the board
+     * @param progressExecutor runs the subscribers
+     */
+    public AsyncSolver(Bitboard bitboard, Executor progressExecutor) {
+        this(bitboard, runnable -> SEARCH_THREADS.newThread(runnable).start(), progressExecutor);
+    }
+
+    /**
+     * Creates a solver running searches and delivering progress on the specified executors.
+     *
+     * @param bitboard the rules of the board
+     * @param searchExecutor runs the searches, each blocking a thread until it ends
+     * @param progressExecutor runs the subscribers
+     */
+    public AsyncSolver(Bitboard bitboard, Executor searchExecutor, Executor progressExecutor) {
+        this.bitboard = bitboard;
+        this.searchExecutor = searchExecutor;
+        this.progressExecutor = progressExecutor;
+    }
+
+    /**
+     * Starts a search.
+     *
+     * @param start the coins on the board at the start
+     * @param budget the limits on the search
+     * @return the running search
+     * @throws IllegalArgumentException if a coin is off the board or there are too many placements of the coins
+     */
+    public Search solve(long start, Budget budget) {
+        return start(new Search(progressExecutor), start, budget);
+    }
+
+    /**
+     * Starts a search, subscribing to its progress before it starts, so that the subscriber receives every
+     * report.
+     *
+     * @param start the coins on the board at the start
+     * @param budget the limits on the search
+     * @param subscriber the subscriber of the progress reports
+     * @return the running search
+     * @throws IllegalArgumentException if a coin is off the board or there are too many placements of the coins
+     */
+    public Search solve(long start, Budget budget, Flow.Subscriber<? super Progress> subscriber) {
+        var search = new Search(progressExecutor);
+        search.progress.subscribe(subscriber);
+        return start(search, start, budget);
+    }
+
+    private Search start(Search search, long start, Budget budget) {
+        if ((start & ~bitboard.fullMask()) != 0) {
+            throw new IllegalArgumentException("Coin off the board: " + Long.toBinaryString(start));
+        }
+        var placements = PlacementIndex.of(bitboard, Long.bitCount(start));
+        if (placements.size() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many placements for a search: " + placements.size());
+        }
+        searchExecutor.execute(() -> {
+            try {
+                Result result = run(search, placements, start, budget);
+                search.progress.close();
+                search.result.complete(result);
+            } catch (RuntimeException | Error e) {
+                search.progress.closeExceptionally(e);
+                search.result.completeExceptionally(e);
+            }
+        });
+        return search;
+    }
+
+    private Result run(Search search, PlacementIndex placements, long start, Budget budget) {
+        var runEvent = new SolverRunEvent();
+        runEvent.begin();
+        long begin = System.nanoTime();
+        long deadline = budget.time() == null ? Long.MAX_VALUE : begin + budget.time().toNanos();
+        // The move that reached every discovered position by its rank, to follow the moves back to the start
+        int[] reachedBy = new int[(int) placements.size()];
+        Arrays.fill(reachedBy, UNDISCOVERED);
+        reachedBy[(int) placements.rank(start)] = NO_MOVE;
+        int discovered = 1;
+        long best = start;
+        int bestScore = Long.bitCount(start & bitboard.corners());
+        long[] frontier = {start};
+        int frontierSize = 1;
+        int[] moves = new int[bitboard.cells() * 4 * Bitboard.MAX_DISTANCE];
+        long nodes = 0;
+        int depth = 0;
+        Status status = null;
+        long solution = 0;
+        search:
+        while (frontierSize > 0) {
+            var levelEvent = new SolverLevelEvent();
+            levelEvent.begin();
+            publish(search, depth, nodes, frontierSize, begin);
+            long[] next = new long[Math.max(16, frontierSize)];
+            int nextSize = 0;
+            for (var i = 0; i < frontierSize; i++) {
+                long coins = frontier[i];
+                if (bitboard.isSolved(coins)) {
+                    status = Status.SOLVED;
+                    solution = coins;
+                    break search;
+                }
+                if (nodes % CHECK_INTERVAL == 0) {
+                    if (search.isCancelled()) {
+                        status = Status.CANCELLED;
+                    } else if (System.nanoTime() > deadline) {
+                        status = Status.OUT_OF_TIME;
+                    }
+                    if (status != null) {
+                        break search;
+                    }
+                    if (nodes % PROGRESS_INTERVAL == 0 && nodes > 0) {
+                        publish(search, depth, nodes, frontierSize, begin);
+                    }
+                }
+                if (nodes == budget.nodes()) {
+                    status = Status.OUT_OF_NODES;
+                    break search;
+                }
+                nodes++;
+                int count = bitboard.legalMoves(coins, moves);
+                for (var m = 0; m < count; m++) {
+                    long successor = bitboard.move(coins, Bitboard.from(moves[m]), Bitboard.to(moves[m]));
+                    int rank = (int) placements.rank(successor);
+                    if (reachedBy[rank] == UNDISCOVERED) {
+                        reachedBy[rank] = moves[m];
+                        discovered++;
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, next.length * 2);
+                        }
+                        next[nextSize++] = successor;
+                        int score = Long.bitCount(successor & bitboard.corners());
+                        if (score > bestScore) {
+                            best = successor;
+                            bestScore = score;
+                        }
+                    }
+                }
+            }
+            levelEvent.end();
+            if (levelEvent.shouldCommit()) {
+                levelEvent.depth = depth;
+                levelEvent.frontierSize = frontierSize;
+                levelEvent.discovered = discovered;
+                levelEvent.commit();
+            }
+            frontier = next;
+            frontierSize = nextSize;
+            if (frontierSize > 0) {
+                depth++;
+            }
+        }
+        if (status == null) {
+            status = Status.UNSOLVABLE;
+        }
+        long position = status == Status.SOLVED ? solution : best;
+        int[] path = path(placements, reachedBy, position);
+        var elapsed = Duration.ofNanos(System.nanoTime() - begin);
+        runEvent.end();
+        if (runEvent.shouldCommit()) {
+            runEvent.solver = "async-bfs";
+            runEvent.boardSize = bitboard.size();
+            runEvent.coinCount = Long.bitCount(start);
+            runEvent.startBoard = start;
+            runEvent.nodes = nodes;
+            runEvent.depth = depth;
+            runEvent.commit();
+        }
+        Logger.info("Search ended {} after {} nodes, depth {}, in {} ms", status, nodes, depth, elapsed.toMillis());
+        return new Result(status, path, position, nodes, depth, elapsed);
+    }
+
+    private void publish(Search search, int depth, long nodes, int frontierSize, long begin) {
+        long elapsed = System.nanoTime() - begin;
+        double rate = elapsed == 0 ? 0 : nodes * 1e9 / elapsed;
+        // Dropped when a subscriber lags behind, the next report supersedes it anyway
+        search.progress.offer(new Progress(depth, nodes, frontierSize, rate, Duration.ofNanos(elapsed)), null);
+    }
+
+    private int[] path(PlacementIndex placements, int[] reachedBy, long position) {
+        int[] path = new int[16];
+        int length = 0;
+        for (int move = reachedBy[(int) placements.rank(position)]; move != NO_MOVE;
+                move = reachedBy[(int) placements.rank(position)]) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = move;
+            position = bitboard.move(position, Bitboard.to(move), Bitboard.from(move));
+        }
+        int[] moves = new int[length];
+        for (var i = 0; i < length; i++) {
+            moves[i] = path[length - 1 - i];
+        }
+        return moves;
+    }
+}
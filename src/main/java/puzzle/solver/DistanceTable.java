@@ -0,0 +1,263 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.metrics.Counter;
+import puzzle.metrics.Histogram;
+import puzzle.metrics.Metrics;
+import puzzle.metrics.SolverLevelEvent;
+import puzzle.metrics.SolverRunEvent;
+import puzzle.metrics.Timer;
+import puzzle.model.Bitboard;
+import puzzle.model.PlacementIndex;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed number of moves needed to solve the puzzle from every placement of the coins.
+ * <p>
+ * The table is built once by a breadth-first search running backwards from the solved placements, so it
+ * covers every position a game can reach, not only those reachable from the usual start. Looking up the
+ * distance of a position or the best move from it takes constant time, which makes the table suitable for
+ * giving hints on the JavaFX application thread. Distances are stored by the rank of the placement, see
+ * {@link PlacementIndex}, one unsigned byte per placement, so the table holds distances of up to
+ * {@value #MAX_DISTANCE} moves.
+ */
+public final class DistanceTable {
+
+    /**
+     * Distance of positions from which the puzzle cannot be solved.
+     */
+    public static final int UNSOLVABLE = -1;
+
+    /**
+     * The largest distance a table can hold.
+     */
+    public static final int MAX_DISTANCE = 254;
+
+    // Stored for unsolvable placements, one more than any distance that can be stored
+    private static final byte NOT_REACHED = (byte) 0xFF;
+
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private static final Counter NODES_EXPANDED = Metrics.counter("solver.nodesExpanded");
+    private static final Histogram FRONTIER_SIZE = Metrics.histogram("solver.frontierSize");
+    private static final Timer BUILD = Metrics.timer("solver.tableBuild");
+    private static final Counter LOOKUPS = Metrics.counter("solver.tableLookups");
+    private static final Counter UNSOLVABLE_LOOKUPS = Metrics.counter("solver.tableLookupsUnsolvable");
+
+    private final Bitboard bitboard;
+    private final PlacementIndex placements;
+    private final byte[] distances;
+    private final int maxDistance;
+
+    private static final class StandardHolder {
+        private static final DistanceTable TABLE = build(Bitboard.STANDARD, 4);
+    }
+
+    private DistanceTable(Bitboard bitboard, PlacementIndex placements, byte[] distances, int maxDistance) {
+        this.bitboard = bitboard;
+        this.placements = placements;
+        this.distances = distances;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Returns the table of the 4&times;4 puzzle with four coins, building it on first use.
+     *
+     * @return the table of the standard puzzle
+     */
+    public static DistanceTable standard() {
+        return StandardHolder.TABLE;
+    }
+
+    /**
+     * Builds the table for the specified board and number of coins.
+     *
+     * @param bitboard the rules of the board
+     * @param coinCount the number of coins on the board
+     * @return the table
+     * @throws IllegalArgumentException if there are too many placements of the coins for an array
+     * @throws IllegalStateException if a position is more than {@value #MAX_DISTANCE} moves away from a solution
+     */
+    public static DistanceTable build(Bitboard bitboard, int coinCount) {
+        var placements = PlacementIndex.of(bitboard, coinCount);
+        if (placements.size() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many placements for a distance table: " + placements.size());
+        }
+        var runEvent = new SolverRunEvent();
+        runEvent.begin();
+        long start = BUILD.start();
+        byte[] distances = new byte[(int) placements.size()];
+        Arrays.fill(distances, NOT_REACHED);
+
+        long[] frontier = new long[16];
+        int frontierSize = 0;
+        for (var rank = 0; rank < distances.length; rank++) {
+            long coins = placements.unrank(rank);
+            if (bitboard.isSolved(coins)) {
+                distances[rank] = 0;
+                frontier = append(frontier, frontierSize++, coins);
+            }
+        }
+        int distance = 0;
+        int solvable = frontierSize;
+        long solved = 0;
+        for (var i = 0; i < frontierSize; i++) {
+            solved |= frontier[i];
+        }
+        while (frontierSize > 0) {
+            var levelEvent = new SolverLevelEvent();
+            levelEvent.begin();
+            FRONTIER_SIZE.record(frontierSize);
+            NODES_EXPANDED.add(frontierSize);
+            distance++;
+            if (distance > MAX_DISTANCE) {
+                throw new IllegalStateException("Positions more than " + MAX_DISTANCE + " moves from a solution");
+            }
+            long[] next = new long[Math.max(16, frontierSize)];
+            int nextSize = 0;
+            for (var i = 0; i < frontierSize; i++) {
+                long coins = frontier[i];
+                for (long remaining = coins; remaining != 0; remaining &= remaining - 1) {
+                    int to = Long.numberOfTrailingZeros(remaining);
+                    for (long sources = predecessorSources(bitboard, coins, to); sources != 0; sources &= sources - 1) {
+                        int from = Long.numberOfTrailingZeros(sources);
+                        long previous = bitboard.move(coins, to, from);
+                        int rank = (int) placements.rank(previous);
+                        if (distances[rank] == NOT_REACHED && bitboard.isLegalMove(previous, from, to)) {
+                            distances[rank] = (byte) distance;
+                            next = append(next, nextSize++, previous);
+                        }
+                    }
+                }
+            }
+            levelEvent.end();
+            if (levelEvent.shouldCommit()) {
+                levelEvent.depth = distance - 1;
+                levelEvent.frontierSize = frontierSize;
+                levelEvent.discovered = nextSize;
+                levelEvent.commit();
+            }
+            frontier = next;
+            frontierSize = nextSize;
+            solvable += nextSize;
+        }
+        runEvent.end();
+        if (runEvent.shouldCommit()) {
+            runEvent.solver = "DistanceTable";
+            runEvent.boardSize = bitboard.size();
+            runEvent.coinCount = coinCount;
+            runEvent.startBoard = solved;
+            runEvent.nodes = solvable;
+            runEvent.depth = distance - 1;
+            runEvent.commit();
+        }
+        Logger.info("Distance table of {} coins on {}x{} built in {} ms: {} solvable placements, at most {} moves",
+                coinCount, bitboard.size(), bitboard.size(), BUILD.stop(start) / 1_000_000, solvable, distance - 1);
+        return new DistanceTable(bitboard, placements, distances, distance - 1);
+    }
+
+    /**
+     * Returns the squares a coin now on square {@code to} may have come from: the empty squares in a straight
+     * line from {@code to}, at most {@link Bitboard#MAX_DISTANCE} away and with no coin in between.
+     */
+    private static long predecessorSources(Bitboard bitboard, long coins, int to) {
+        long sources = 0;
+        int row = bitboard.row(to);
+        int col = bitboard.col(to);
+        for (int[] direction : DIRECTIONS) {
+            for (var step = 1; step <= Bitboard.MAX_DISTANCE; step++) {
+                int r = row + direction[0] * step;
+                int c = col + direction[1] * step;
+                if (!bitboard.isOnBoard(r, c) || (coins >>> bitboard.index(r, c) & 1) != 0) {
+                    break;
+                }
+                sources |= 1L << bitboard.index(r, c);
+            }
+        }
+        return sources;
+    }
+
+    private static long[] append(long[] array, int size, long value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = value;
+        return array;
+    }
+
+    /**
+     * Returns the rules of the board this table belongs to.
+     *
+     * @return the rules of the board
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Returns the number of coins this table belongs to.
+     *
+     * @return the number of coins
+     */
+    public int getCoinCount() {
+        return placements.coinCount();
+    }
+
+    /**
+     * Returns the largest distance of a solvable position.
+     *
+     * @return the largest distance
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Returns the least number of moves needed to solve the puzzle.
+     *
+     * @param coins the coins on the board
+     * @return the number of moves, or {@link #UNSOLVABLE} if the puzzle cannot be solved from the position
+     * @throws IllegalArgumentException if the number of coins does not match the table
+     */
+    public int distance(long coins) {
+        if (!placements.contains(coins)) {
+            throw new IllegalArgumentException("Position does not belong to this table: " + Long.toBinaryString(coins));
+        }
+        LOOKUPS.increment();
+        int distance = distanceAt(placements.rank(coins));
+        if (distance == UNSOLVABLE) {
+            UNSOLVABLE_LOOKUPS.increment();
+        }
+        return distance;
+    }
+
+    /**
+     * Returns a move on an optimal solution.
+     *
+     * @param coins the coins on the board
+     * @return the move packed by {@link Bitboard#packMove(int, int)}, or {@code -1} if the position is solved
+     * or the puzzle cannot be solved from it
+     */
+    public int bestMove(long coins) {
+        int distance = distance(coins);
+        if (distance <= 0) {
+            return -1;
+        }
+        for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+            int from = Long.numberOfTrailingZeros(mobile);
+            for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (distanceAt(placements.rank(bitboard.move(coins, from, to))) == distance - 1) {
+                    return Bitboard.packMove(from, to);
+                }
+            }
+        }
+        throw new IllegalStateException("Inconsistent distance table");
+    }
+
+    private int distanceAt(long rank) {
+        byte distance = distances[(int) rank];
+        return distance == NOT_REACHED ? UNSOLVABLE : Byte.toUnsignedInt(distance);
+    }
+}
@@ -0,0 +1,385 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.metrics.SolverLevelEvent;
+import puzzle.metrics.SolverRunEvent;
+import puzzle.model.Bitboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Breadth-first search over the positions reachable from a start position that keeps its state on disk, for
+ * boards whose state space does not fit in memory.
+ * <p>
+ * Every layer of the search is a file of packed positions, see {@link Bitboard}, sorted in ascending order.
+ * The successors of a layer are collected in a buffer of fixed size; whenever it is full it is sorted and
+ * written to a run file. The runs are then merged and, as moves cannot always be reversed, every position
+ * found in any earlier layer is removed by merging against a file of all visited positions (delayed duplicate
+ * detection). Files are read through memory-mapped windows, so the heap only holds the successor buffer and a
+ * few I/O buffers, whatever the size of the space.
+ * <p>
+ * The layer files {@code layer-NNNN.bin} are left in the working directory for further analysis; all other
+ * files are removed when the search ends.
+ */
+public final class ExternalBreadthFirstSearch {
+
+    /**
+     * The smallest memory budget accepted.
+     */
+    public static final long MIN_MEMORY_BUDGET = 1 << 20;
+
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+
+    private static final int MAX_FAN_IN = 64;
+
+    private static final long WINDOW_BYTES = 1L << 27;
+
+    /**
+     * The outcome of a search.
+     *
+     * @param states the number of reachable positions
+     * @param depth the largest number of moves needed to reach a position
+     * @param layerSizes the number of positions first reached after each number of moves
+     * @param lastLayer the file of the positions farthest from the start
+     */
+    public record Result(long states, int depth, List<Long> layerSizes, Path lastLayer) {
+    }
+
+    private final Bitboard bitboard;
+    private final Path directory;
+    private final int bufferSize;
+
+    /**
+     * Creates a search on the specified board.
+     *
+     * @param bitboard the rules of the board
+     * @param directory the working directory for the layer files
+     * @param memoryBudget the number of bytes of heap the search may use
+     * @throws IllegalArgumentException if the memory budget is less than {@link #MIN_MEMORY_BUDGET}
+     */
+    public ExternalBreadthFirstSearch(Bitboard bitboard, Path directory, long memoryBudget) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget too small: " + memoryBudget);
+        }
+        this.bitboard = bitboard;
+        this.directory = directory;
+        // The I/O buffers of a merge come out of the budget, the rest holds successors
+        long bytes = memoryBudget - (long) (MAX_FAN_IN + 2) * IO_BUFFER_BYTES;
+        this.bufferSize = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(bytes, MIN_MEMORY_BUDGET / 2) / Long.BYTES);
+    }
+
+    /**
+     * Searches every position reachable from the start position.
+     *
+     * @param start the coins on the board at the start
+     * @return the outcome of the search
+     * @throws IOException if an I/O error occurs while reading or writing the working files
+     */
+    public Result search(long start) throws IOException {
+        if ((start & ~bitboard.fullMask()) != 0) {
+            throw new IllegalArgumentException("Coin off the board: " + Long.toBinaryString(start));
+        }
+        var runEvent = new SolverRunEvent();
+        runEvent.begin();
+        Files.createDirectories(directory);
+        long[] buffer = new long[bufferSize];
+        Path layer = layerFile(0);
+        Path visited = directory.resolve("visited.bin");
+        writeSingle(layer, start);
+        writeSingle(visited, start);
+        List<Long> layerSizes = new ArrayList<>(List.of(1L));
+        long states = 1;
+        int depth = 0;
+        while (true) {
+            var levelEvent = new SolverLevelEvent();
+            levelEvent.begin();
+            List<Path> runs = expand(layer, buffer);
+            Path next = layerFile(depth + 1);
+            long size = mergeRuns(runs, visited, next);
+            levelEvent.end();
+            if (levelEvent.shouldCommit()) {
+                levelEvent.depth = depth;
+                levelEvent.frontierSize = layerSizes.get(depth);
+                levelEvent.discovered = size;
+                levelEvent.commit();
+            }
+            if (size == 0) {
+                Files.delete(next);
+                break;
+            }
+            Path merged = directory.resolve("visited-next.bin");
+            merge(List.of(visited, next), null, merged);
+            Files.move(merged, visited, StandardCopyOption.REPLACE_EXISTING);
+            states += size;
+            layerSizes.add(size);
+            depth++;
+            layer = next;
+            Logger.debug("Layer {}: {} positions, {} in total", depth, size, states);
+        }
+        Files.delete(visited);
+        runEvent.end();
+        if (runEvent.shouldCommit()) {
+            runEvent.solver = "ExternalBreadthFirstSearch";
+            runEvent.boardSize = bitboard.size();
+            runEvent.coinCount = Long.bitCount(start);
+            runEvent.startBoard = start;
+            runEvent.nodes = states;
+            runEvent.depth = depth;
+            runEvent.commit();
+        }
+        Logger.info("External search on {}x{} reached {} positions in {} layers",
+                bitboard.size(), bitboard.size(), states, depth + 1);
+        return new Result(states, depth, List.copyOf(layerSizes), layer);
+    }
+
+    private Path layerFile(int depth) {
+        return directory.resolve(String.format("layer-%04d.bin", depth));
+    }
+
+    private void writeSingle(Path file, long coins) throws IOException {
+        try (var writer = new LongWriter(file)) {
+            writer.write(coins);
+        }
+    }
+
+    /**
+     * Writes the successors of every position of a layer to sorted runs of distinct positions.
+     */
+    private List<Path> expand(Path layer, long[] buffer) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        int maxMoves = bitboard.cells() * 4 * Bitboard.MAX_DISTANCE;
+        int size = 0;
+        try (var reader = new LongReader(layer)) {
+            while (reader.hasNext()) {
+                if (size > buffer.length - maxMoves) {
+                    runs.add(writeRun(buffer, size, runs.size()));
+                    size = 0;
+                }
+                long coins = reader.next();
+                for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+                    int from = Long.numberOfTrailingZeros(mobile);
+                    for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                        buffer[size++] = bitboard.move(coins, from, Long.numberOfTrailingZeros(targets));
+                    }
+                }
+            }
+        }
+        if (size > 0) {
+            runs.add(writeRun(buffer, size, runs.size()));
+        }
+        return runs;
+    }
+
+    private Path writeRun(long[] buffer, int size, int index) throws IOException {
+        Arrays.parallelSort(buffer, 0, size);
+        Path run = directory.resolve(String.format("run-%06d.bin", index));
+        try (var writer = new LongWriter(run)) {
+            for (var i = 0; i < size; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) {
+                    writer.write(buffer[i]);
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merges the runs of a layer into the next layer, leaving out visited positions. Runs are merged in
+     * several passes when there are more than can be open at once.
+     */
+    private long mergeRuns(List<Path> runs, Path visited, Path next) throws IOException {
+        var pass = 0;
+        while (runs.size() > MAX_FAN_IN) {
+            List<Path> merged = new ArrayList<>();
+            for (var i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+                Path output = directory.resolve(String.format("merge-%d-%06d.bin", pass, merged.size()));
+                merge(group, null, output);
+                for (Path run : group) {
+                    Files.delete(run);
+                }
+                merged.add(output);
+            }
+            runs = merged;
+            pass++;
+        }
+        long size = merge(runs, visited, next);
+        for (Path run : runs) {
+            Files.delete(run);
+        }
+        return size;
+    }
+
+    /**
+     * Merges sorted files into one sorted file of distinct positions, leaving out those in {@code subtract}.
+     *
+     * @return the number of positions written
+     */
+    private static long merge(List<Path> inputs, Path subtract, Path output) throws IOException {
+        var readers = new ArrayList<LongReader>();
+        var queue = new PriorityQueue<LongReader>((a, b) -> Long.compare(a.peek(), b.peek()));
+        try (var writer = new LongWriter(output);
+             var excluded = subtract == null ? null : new LongReader(subtract)) {
+            for (Path input : inputs) {
+                var reader = new LongReader(input);
+                readers.add(reader);
+                if (reader.hasNext()) {
+                    queue.add(reader);
+                }
+            }
+            long count = 0;
+            long last = 0;
+            boolean first = true;
+            while (!queue.isEmpty()) {
+                LongReader reader = queue.poll();
+                long coins = reader.next();
+                if (reader.hasNext()) {
+                    queue.add(reader);
+                }
+                if (!first && coins == last) {
+                    continue;
+                }
+                first = false;
+                last = coins;
+                if (excluded != null) {
+                    while (excluded.hasNext() && excluded.peek() < coins) {
+                        excluded.next();
+                    }
+                    if (excluded.hasNext() && excluded.peek() == coins) {
+                        continue;
+                    }
+                }
+                writer.write(coins);
+                count++;
+            }
+            return count;
+        } finally {
+            for (LongReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a file of positions through memory-mapped windows.
+     */
+    private static final class LongReader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final long size;
+        private long mapped;
+        private MappedByteBuffer window;
+        private long current;
+        private boolean hasCurrent;
+
+        LongReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            size = channel.size();
+            advance();
+        }
+
+        boolean hasNext() {
+            return hasCurrent;
+        }
+
+        long peek() {
+            return current;
+        }
+
+        long next() throws IOException {
+            long result = current;
+            advance();
+            return result;
+        }
+
+        private void advance() throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (mapped == size) {
+                    hasCurrent = false;
+                    return;
+                }
+                long length = Math.min(WINDOW_BYTES, size - mapped);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+                mapped += length;
+            }
+            current = window.getLong();
+            hasCurrent = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a file of positions through a buffer.
+     */
+    private static final class LongWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+
+        LongWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+
+        void write(long coins) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(coins);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Runs a search from four coins in the centre of a board.
+     * <p>
+     * Usage: {@code ExternalBreadthFirstSearch size directory [memoryBudgetMiB]}, 256 MiB by default.
+     *
+     * @param args the size of the board, the working directory and the memory budget
+     * @throws IOException if an I/O error occurs while reading or writing the working files
+     */
+    public static void main(String[] args) throws IOException {
+        var bitboard = Bitboard.of(Integer.parseInt(args[0]));
+        long budget = (args.length > 2 ? Long.parseLong(args[2]) : 256) << 20;
+        int low = bitboard.size() / 2 - 1;
+        long start = 0;
+        for (var row = low; row <= low + 1; row++) {
+            for (var col = low; col <= low + 1; col++) {
+                start |= 1L << bitboard.index(row, col);
+            }
+        }
+        var result = new ExternalBreadthFirstSearch(bitboard, Path.of(args[1]), budget).search(start);
+        System.out.printf("%d positions, depth %d, layers %s%n", result.states(), result.depth(), result.layerSizes());
+    }
+}
@@ -0,0 +1,231 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.metrics.SolverRunEvent;
+import puzzle.model.Bitboard;
+import puzzle.model.LabelledCoinState;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Finds optimal solutions of the labelled puzzle, see {@link LabelledCoinState}, by A* search guided by a
+ * {@link PatternDatabase}.
+ * <p>
+ * The estimate of the pattern databases changes by at most one per move, so a placement is never expanded twice
+ * and a placement that cannot be solved is recognised by running out of placements. Placements are numbered by
+ * packing the squares of the coins into an {@code int}; the number of moves to every placement and the move
+ * leading to it are kept in arrays of that size, allocated with the solver: 192 KiB for the 4&times;4 board,
+ * 48 MiB for the 8&times;8 board. The open placements are kept in one stack per number of moves plus estimate,
+ * so that the search continues from the deepest of the most promising placements.
+ */
+public final class LabelledSolver {
+
+    /**
+     * An optimal solution.
+     *
+     * @param moves the moves, packed by {@link Bitboard#packMove(int, int)}
+     * @param nodes the number of placements expanded by the search
+     */
+    public record Solution(int[] moves, long nodes) {
+    }
+
+    private static final int COINS = LabelledCoinState.COIN_COUNT;
+    private static final byte NOT_SEEN = -1;
+    private static final int MAX_MOVES = Byte.MAX_VALUE;
+
+    private final PatternDatabase database;
+    private final Bitboard bitboard;
+    private final int bitsPerSquare;
+    private final int[] goals;
+    private final byte[] moveCounts;
+    private final short[] parents;
+    private final int[][] open = new int[MAX_MOVES + PatternDatabase.UNREACHABLE][];
+    private final int[] openSizes = new int[open.length];
+
+    /**
+     * Creates a solver for the board and corners of the specified databases.
+     *
+     * @param database the pattern databases
+     */
+    public LabelledSolver(PatternDatabase database) {
+        this.database = database;
+        this.bitboard = database.getBitboard();
+        this.goals = database.getGoals();
+        this.bitsPerSquare = Integer.SIZE - Integer.numberOfLeadingZeros(bitboard.cells() - 1);
+        this.moveCounts = new byte[1 << bitsPerSquare * COINS];
+        this.parents = new short[moveCounts.length];
+    }
+
+    /**
+     * Creates a solver for the board and corners of a labelled puzzle.
+     *
+     * @param state the puzzle
+     * @return the solver
+     */
+    public static LabelledSolver of(LabelledCoinState state) {
+        return new LabelledSolver(PatternDatabase.of(state.getBitboard(), state.getGoals()));
+    }
+
+    /**
+     * Finds an optimal solution from a position. A solver runs one search at a time.
+     *
+     * @param state the position to solve, with the board and corners of this solver
+     * @return the solution, or an empty optional if the puzzle cannot be solved from the position
+     * @throws IllegalArgumentException if the position has another board or other corners
+     */
+    public synchronized Optional<Solution> solve(LabelledCoinState state) {
+        if (state.getBitboard() != bitboard || !Arrays.equals(state.getGoals(), goals)) {
+            throw new IllegalArgumentException("The puzzle has another board or other corners than the solver");
+        }
+        var event = new SolverRunEvent();
+        event.begin();
+        Arrays.fill(moveCounts, NOT_SEEN);
+        Arrays.fill(openSizes, 0);
+        int[] squares = state.getSquares();
+        int goal = key(goals);
+        int start = key(squares);
+        moveCounts[start] = 0;
+        push(database.estimate(squares), start);
+        long nodes = 0;
+        boolean found = false;
+        for (var f = 0; f < open.length && !found; f++) {
+            while (openSizes[f] > 0) {
+                int key = open[f][--openSizes[f]];
+                unpack(key, squares);
+                int moves = moveCounts[key];
+                if (moves + database.estimate(squares) != f) {
+                    // Reached again with fewer moves after it was pushed
+                    continue;
+                }
+                if (key == goal) {
+                    found = true;
+                    break;
+                }
+                nodes++;
+                expand(squares, moves);
+            }
+        }
+        int[] solution = found ? path(goal, start) : null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = "labelled-a*";
+            event.boardSize = bitboard.size();
+            event.coinCount = COINS;
+            event.startBoard = state.getCoins();
+            event.nodes = nodes;
+            event.depth = found ? solution.length : 0;
+            event.commit();
+        }
+        if (!found) {
+            Logger.info("No solution found after {} nodes", nodes);
+            return Optional.empty();
+        }
+        Logger.info("Found a solution of {} moves after {} nodes", solution.length, nodes);
+        return Optional.of(new Solution(solution, nodes));
+    }
+
+    private void expand(int[] squares, int moves) {
+        if (moves + 1 >= MAX_MOVES) {
+            return;
+        }
+        long coins = 0;
+        for (int square : squares) {
+            coins |= 1L << square;
+        }
+        for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+            int from = Long.numberOfTrailingZeros(mobile);
+            int coin = coinOn(squares, from);
+            for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                squares[coin] = to;
+                int key = key(squares);
+                if (moveCounts[key] == NOT_SEEN || moveCounts[key] > moves + 1) {
+                    int estimate = database.estimate(squares);
+                    if (estimate < PatternDatabase.UNREACHABLE) {
+                        moveCounts[key] = (byte) (moves + 1);
+                        parents[key] = (short) Bitboard.packMove(from, to);
+                        push(moves + 1 + estimate, key);
+                    }
+                }
+                squares[coin] = from;
+            }
+        }
+    }
+
+    private void push(int f, int key) {
+        if (open[f] == null) {
+            open[f] = new int[64];
+        } else if (openSizes[f] == open[f].length) {
+            open[f] = Arrays.copyOf(open[f], open[f].length * 2);
+        }
+        open[f][openSizes[f]++] = key;
+    }
+
+    /**
+     * Follows the moves leading to the goal back to the start.
+     */
+    private int[] path(int goal, int start) {
+        int[] moves = new int[moveCounts[goal]];
+        int[] squares = new int[COINS];
+        unpack(goal, squares);
+        for (int key = goal, i = moves.length - 1; key != start; key = key(squares), i--) {
+            int move = parents[key];
+            moves[i] = move;
+            squares[coinOn(squares, Bitboard.to(move))] = Bitboard.from(move);
+        }
+        return moves;
+    }
+
+    private void unpack(int key, int[] squares) {
+        int mask = (1 << bitsPerSquare) - 1;
+        for (var i = COINS - 1; i >= 0; i--) {
+            squares[i] = key & mask;
+            key >>>= bitsPerSquare;
+        }
+    }
+
+    private int key(int[] squares) {
+        int key = 0;
+        for (int square : squares) {
+            key = key << bitsPerSquare | square;
+        }
+        return key;
+    }
+
+    private static int coinOn(int[] squares, int square) {
+        for (var i = 0; i < COINS; i++) {
+            if (squares[i] == square) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No coin on square " + square);
+    }
+
+    /**
+     * Solves the standard labelled puzzle and prints the solution.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        var state = new LabelledCoinState();
+        long start = System.nanoTime();
+        var solver = LabelledSolver.of(state);
+        var solution = solver.solve(state);
+        long elapsed = System.nanoTime() - start;
+        if (solution.isEmpty()) {
+            System.out.println("The puzzle cannot be solved");
+            return;
+        }
+        System.out.println(state);
+        Bitboard bitboard = state.getBitboard();
+        for (int move : solution.get().moves()) {
+            int from = Bitboard.from(move);
+            int to = Bitboard.to(move);
+            System.out.printf("(%d, %d) -> (%d, %d)%n",
+                    bitboard.row(from), bitboard.col(from), bitboard.row(to), bitboard.col(to));
+        }
+        System.out.printf("%d moves, %d nodes, %.1f ms%n",
+                solution.get().moves().length, solution.get().nodes(), elapsed / 1e6);
+    }
+}
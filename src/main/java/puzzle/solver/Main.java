@@ -1,20 +1,56 @@
 package puzzle.solver;
 
-import puzzle.TwoPhaseMoveState;
+import puzzle.model.Bitboard;
 import puzzle.model.CoinState;
-import puzzle.model.Position;
+import puzzle.model.TwoPhaseMoves;
+
+import java.time.Duration;
+import java.util.concurrent.Flow;
 
 /**
  * Main class to solve the puzzle using Breadth-First Search algorithm.
  */
 public class Main {
     /**
-     * Starting point of the application.
+     * Starting point of the application. Solves the puzzle in the background, printing the progress, and
+     * prints the solution, or the moves to the best position reached if a budget was used up.
+     * <p>
+     * Usage: {@code Main [seconds] [nodes]}, without limits by default.
      *
-     * @param args command line arguments
+     * @param args the time and node budgets of the search
      */
     public static void main(String[] args) {
-       BreadthFirstSearch<TwoPhaseMoveState.TwoPhaseMove<Position>> bfs = new BreadthFirstSearch<>();
-       bfs.solveAndPrintSolution(new CoinState());
+        var time = args.length > 0 ? Duration.ofMillis((long) (Double.parseDouble(args[0]) * 1000)) : null;
+        long nodes = args.length > 1 ? Long.parseLong(args[1]) : Long.MAX_VALUE;
+        var state = new CoinState();
+        Bitboard bitboard = state.getBitboard();
+        var budget = new AsyncSolver.Budget(time, nodes);
+        var search = new AsyncSolver(bitboard).solve(state.getCoins(), budget, new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(AsyncSolver.Progress progress) {
+                System.out.printf("depth %d, %d nodes, frontier %d, %.0f nodes/s%n", progress.depth(),
+                        progress.nodes(), progress.frontierSize(), progress.nodesPerSecond());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        var result = search.result().join();
+        System.out.println(state);
+        for (int move : result.moves()) {
+            System.out.println(TwoPhaseMoves.of(bitboard, move));
+        }
+        System.out.printf("%s: %d moves, %d nodes, %d ms%n", result.status(), result.moves().length,
+                result.nodes(), result.elapsed().toMillis());
     }
-}
\ No newline at end of file
+}
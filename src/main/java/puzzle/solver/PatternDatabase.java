@@ -0,0 +1,252 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.model.Bitboard;
+import puzzle.model.LabelledCoinState;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Additive pattern databases giving an admissible estimate of the number of moves needed to solve the
+ * labelled puzzle, see {@link LabelledCoinState}.
+ * <p>
+ * A pattern is a pair of coins. Its database holds, for every placement of the two coins, the number of moves
+ * of those two coins needed to bring both to their corners in a relaxed puzzle: the other coins are removed,
+ * and a coin may be moved even if it is not adjacent to another coin, but it still cannot pass through or land
+ * on the other coin of the pair. Every real move of a coin of the pair is also a relaxed move, and a move only
+ * moves one coin, so the estimates of two disjoint pairs can be added. The four coins are split into two
+ * pairs in three ways; the estimate is the largest of the three sums.
+ * <p>
+ * The databases of a board and assignment of corners are built once by a breadth-first search and cached as a
+ * binary resource, see {@link #main(String[])}; without a resource they are built on first use.
+ */
+public final class PatternDatabase {
+
+    /**
+     * Marks placements from which a pair cannot reach its corners.
+     */
+    static final int UNREACHABLE = 0xFF;
+
+    private static final int MAGIC = 0x50444231;
+
+    private static final int[][] PAIRS = {{0, 1}, {2, 3}, {0, 2}, {1, 3}, {0, 3}, {1, 2}};
+
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private static final Map<String, PatternDatabase> CACHE = new ConcurrentHashMap<>();
+
+    private final Bitboard bitboard;
+    private final int[] goals;
+    private final byte[][] tables;
+
+    private PatternDatabase(Bitboard bitboard, int[] goals, byte[][] tables) {
+        this.bitboard = bitboard;
+        this.goals = goals;
+        this.tables = tables;
+    }
+
+    /**
+     * Returns the databases of a board and assignment of corners, loading them from the resources or
+     * building them the first time.
+     *
+     * @param bitboard the rules of the board
+     * @param goals the index of the corner every coin has to reach, by label
+     * @return the databases
+     */
+    public static PatternDatabase of(Bitboard bitboard, int[] goals) {
+        return CACHE.computeIfAbsent(resourceName(bitboard, goals), name -> {
+            try (InputStream in = PatternDatabase.class.getResourceAsStream(name)) {
+                if (in != null) {
+                    Logger.debug("Loading pattern databases from {}", name);
+                    return read(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + name, e);
+            }
+            Logger.debug("No resource {}, building the pattern databases", name);
+            return build(bitboard, goals);
+        });
+    }
+
+    private static String resourceName(Bitboard bitboard, int[] goals) {
+        var sb = new StringBuilder("/pdb/labelled-").append(bitboard.size());
+        for (int goal : goals) {
+            sb.append('-').append(goal);
+        }
+        return sb.append(".bin").toString();
+    }
+
+    /**
+     * Builds the databases of a board and assignment of corners.
+     *
+     * @param bitboard the rules of the board
+     * @param goals the index of the corner every coin has to reach, by label
+     * @return the databases
+     */
+    public static PatternDatabase build(Bitboard bitboard, int[] goals) {
+        long start = System.nanoTime();
+        byte[][] tables = new byte[PAIRS.length][];
+        for (var p = 0; p < PAIRS.length; p++) {
+            tables[p] = buildPair(bitboard, goals[PAIRS[p][0]], goals[PAIRS[p][1]]);
+        }
+        Logger.debug("Built pattern databases in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return new PatternDatabase(bitboard, goals.clone(), tables);
+    }
+
+    /**
+     * Runs a breadth-first search of the relaxed puzzle of two coins from their goals. Relaxed moves can be
+     * reversed, so the distance from the goals is the distance to them.
+     */
+    private static byte[] buildPair(Bitboard bitboard, int goalA, int goalB) {
+        int cells = bitboard.cells();
+        byte[] table = new byte[cells * cells];
+        Arrays.fill(table, (byte) UNREACHABLE);
+        int[] queue = new int[cells * cells];
+        int head = 0;
+        int tail = 0;
+        table[goalA * cells + goalB] = 0;
+        queue[tail++] = goalA * cells + goalB;
+        while (head < tail) {
+            int state = queue[head++];
+            int a = state / cells;
+            int b = state % cells;
+            int next = (table[state] & 0xFF) + 1;
+            for (var coin = 0; coin < 2; coin++) {
+                int moving = coin == 0 ? a : b;
+                int other = coin == 0 ? b : a;
+                for (int[] direction : DIRECTIONS) {
+                    int row = bitboard.row(moving);
+                    int col = bitboard.col(moving);
+                    for (var step = 1; step <= Bitboard.MAX_DISTANCE; step++) {
+                        row += direction[0];
+                        col += direction[1];
+                        if (!bitboard.isOnBoard(row, col) || bitboard.index(row, col) == other) {
+                            break;
+                        }
+                        int to = bitboard.index(row, col);
+                        int successor = coin == 0 ? to * cells + b : a * cells + to;
+                        if ((table[successor] & 0xFF) == UNREACHABLE) {
+                            table[successor] = (byte) next;
+                            queue[tail++] = successor;
+                        }
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the rules of the board of the databases.
+     *
+     * @return the rules of the board
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Returns the corners the coins have to reach.
+     *
+     * @return a new array with the index of the goal of every coin, by label
+     */
+    public int[] getGoals() {
+        return goals.clone();
+    }
+
+    /**
+     * Estimates the number of moves needed to bring every coin to its corner. The estimate never exceeds the
+     * real number of moves.
+     *
+     * @param squares the index of the square of every coin, by label
+     * @return the estimate, or {@link #UNREACHABLE} or more if a pair cannot reach its corners
+     */
+    public int estimate(int[] squares) {
+        int best = 0;
+        for (var p = 0; p < PAIRS.length; p += 2) {
+            best = Math.max(best, distance(p, squares) + distance(p + 1, squares));
+        }
+        return best;
+    }
+
+    private int distance(int pair, int[] squares) {
+        return tables[pair][squares[PAIRS[pair][0]] * bitboard.cells() + squares[PAIRS[pair][1]]] & 0xFF;
+    }
+
+    /**
+     * Writes the databases in the binary format of the resources.
+     *
+     * @param out the stream to write to, not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(OutputStream out) throws IOException {
+        var data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(bitboard.size());
+        for (int goal : goals) {
+            data.writeByte(goal);
+        }
+        for (byte[] table : tables) {
+            data.write(table);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads databases written by {@link #write(OutputStream)}.
+     *
+     * @param in the stream to read from, not closed
+     * @return the databases
+     * @throws IOException if an I/O error occurs or the stream does not hold pattern databases
+     */
+    public static PatternDatabase read(InputStream in) throws IOException {
+        var data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a pattern database");
+        }
+        Bitboard bitboard;
+        try {
+            bitboard = Bitboard.of(data.readUnsignedByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt pattern database", e);
+        }
+        int[] goals = new int[LabelledCoinState.COIN_COUNT];
+        for (var i = 0; i < goals.length; i++) {
+            goals[i] = data.readUnsignedByte();
+        }
+        byte[][] tables = new byte[PAIRS.length][bitboard.cells() * bitboard.cells()];
+        for (byte[] table : tables) {
+            data.readFully(table);
+        }
+        return new PatternDatabase(bitboard, goals, tables);
+    }
+
+    /**
+     * Writes the databases of the standard labelled puzzle as a resource.
+     * <p>
+     * Usage: {@code PatternDatabase [directory]}, {@code src/main/resources} by default.
+     *
+     * @param args the directory of the resources
+     * @throws IOException if the resource cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        var state = new LabelledCoinState();
+        Path directory = Path.of(args.length > 0 ? args[0] : "src/main/resources");
+        Path file = directory.resolve(resourceName(state.getBitboard(), state.getGoals()).substring(1));
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            build(state.getBitboard(), state.getGoals()).write(out);
+        }
+        System.out.printf("Wrote %s (%d bytes)%n", file, Files.size(file));
+    }
+}
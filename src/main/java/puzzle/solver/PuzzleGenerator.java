@@ -0,0 +1,219 @@
+package puzzle.solver;
+
+import org.tinylog.Logger;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.model.PlacementIndex;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+/**
+ * Generates start positions of a requested difficulty.
+ * <p>
+ * The difficulty of a position is graded by two numbers taken from a {@link DistanceTable}: the number of
+ * moves of an optimal solution, and the dead-end ratio, the share of the legal moves that lead to a position
+ * from which the puzzle can no longer be solved. Every placement of the coins is graded once when the generator
+ * is created; afterwards a puzzle is drawn uniformly from the placements in the requested band in constant
+ * time.
+ */
+public final class PuzzleGenerator {
+
+    /**
+     * A band of difficulty.
+     *
+     * @param minMoves the least number of moves of an optimal solution, at least 1
+     * @param maxMoves the largest number of moves of an optimal solution
+     * @param minDeadEndRatio the least share of moves leading to an unsolvable position
+     * @param maxDeadEndRatio the largest share of moves leading to an unsolvable position
+     */
+    public record Difficulty(int minMoves, int maxMoves, double minDeadEndRatio, double maxDeadEndRatio) {
+
+        /**
+         * Short puzzles.
+         */
+        public static final Difficulty EASY = new Difficulty(1, 5, 0, 1);
+
+        /**
+         * Puzzles of medium length.
+         */
+        public static final Difficulty MEDIUM = new Difficulty(6, 9, 0, 1);
+
+        /**
+         * Long puzzles in which many moves lead to a dead end.
+         */
+        public static final Difficulty HARD = new Difficulty(10, Integer.MAX_VALUE, 0.25, 1);
+
+        /**
+         * Creates a band of difficulty.
+         *
+         * @throws IllegalArgumentException if a bound is out of range or a band is empty
+         */
+        public Difficulty {
+            if (minMoves < 1 || maxMoves < minMoves) {
+                throw new IllegalArgumentException("Invalid number of moves: " + minMoves + ".." + maxMoves);
+            }
+            if (minDeadEndRatio < 0 || maxDeadEndRatio > 1 || maxDeadEndRatio < minDeadEndRatio) {
+                throw new IllegalArgumentException("Invalid dead-end ratio: " + minDeadEndRatio + ".." + maxDeadEndRatio);
+            }
+        }
+
+        /**
+         * Returns a band of puzzles whose optimal solution takes the specified number of moves.
+         *
+         * @param minMoves the least number of moves
+         * @param maxMoves the largest number of moves
+         * @return the band of difficulty
+         */
+        public static Difficulty moves(int minMoves, int maxMoves) {
+            return new Difficulty(minMoves, maxMoves, 0, 1);
+        }
+
+        private boolean containsMoves(int moves) {
+            return moves >= minMoves && moves <= maxMoves;
+        }
+
+        private boolean containsDeadEndRatio(double deadEndRatio) {
+            return deadEndRatio >= minDeadEndRatio && deadEndRatio <= maxDeadEndRatio;
+        }
+    }
+
+    /**
+     * A generated puzzle.
+     *
+     * @param coins the start position, packed as in {@link Bitboard}
+     * @param optimalMoves the number of moves of an optimal solution
+     * @param deadEndRatio the share of the legal moves leading to an unsolvable position
+     */
+    public record Puzzle(long coins, int optimalMoves, double deadEndRatio) {
+
+        /**
+         * Returns the start position as a board of the standard puzzle.
+         *
+         * @return a new board
+         * @throws IllegalArgumentException if the puzzle is not one of the standard board
+         */
+        public CoinState toCoinState() {
+            return CoinState.of(coins);
+        }
+    }
+
+    private final DistanceTable table;
+    private final Difficulty difficulty;
+    private final RandomGenerator random;
+    private final PlacementIndex placements;
+    private final int[] candidates;
+
+    /**
+     * Creates a generator of puzzles of the standard board.
+     *
+     * @param difficulty the band of difficulty
+     * @param random the source of randomness
+     * @throws IllegalArgumentException if no position falls in the band
+     */
+    public PuzzleGenerator(Difficulty difficulty, RandomGenerator random) {
+        this(DistanceTable.standard(), difficulty, random);
+    }
+
+    /**
+     * Creates a generator of puzzles of the board and number of coins of a distance table.
+     *
+     * @param table the distances to the goal
+     * @param difficulty the band of difficulty
+     * @param random the source of randomness
+     * @throws IllegalArgumentException if no position falls in the band
+     */
+    public PuzzleGenerator(DistanceTable table, Difficulty difficulty, RandomGenerator random) {
+        this.table = table;
+        this.difficulty = difficulty;
+        this.random = random;
+        this.placements = PlacementIndex.of(table.getBitboard(), table.getCoinCount());
+        this.candidates = grade();
+        if (candidates.length == 0) {
+            throw new IllegalArgumentException("No position of difficulty " + difficulty);
+        }
+        Logger.debug("{} of {} positions match difficulty {}", candidates.length, placements.size(), difficulty);
+    }
+
+    private int[] grade() {
+        Bitboard bitboard = table.getBitboard();
+        int[] moves = new int[bitboard.cells() * 4 * Bitboard.MAX_DISTANCE];
+        int[] ranks = new int[(int) placements.size()];
+        int count = 0;
+        for (var rank = 0; rank < ranks.length; rank++) {
+            long coins = placements.unrank(rank);
+            // The dead-end ratio costs a lookup per legal move, so it is only computed in the band of moves
+            if (difficulty.containsMoves(table.distance(coins))
+                    && difficulty.containsDeadEndRatio(deadEndRatio(bitboard, coins, moves))) {
+                ranks[count++] = rank;
+            }
+        }
+        return Arrays.copyOf(ranks, count);
+    }
+
+    private double deadEndRatio(Bitboard bitboard, long coins, int[] moves) {
+        int count = bitboard.legalMoves(coins, moves);
+        int deadEnds = 0;
+        for (var i = 0; i < count; i++) {
+            long next = bitboard.move(coins, Bitboard.from(moves[i]), Bitboard.to(moves[i]));
+            if (table.distance(next) == DistanceTable.UNSOLVABLE) {
+                deadEnds++;
+            }
+        }
+        return count == 0 ? 1 : (double) deadEnds / count;
+    }
+
+    /**
+     * Returns the number of positions in the band of difficulty.
+     *
+     * @return the number of distinct puzzles
+     */
+    public int getCandidateCount() {
+        return candidates.length;
+    }
+
+    /**
+     * Generates a puzzle.
+     *
+     * @return a puzzle drawn uniformly from the positions in the band of difficulty
+     */
+    public Puzzle next() {
+        long coins = placements.unrank(candidates[random.nextInt(candidates.length)]);
+        int[] moves = new int[table.getBitboard().cells() * 4 * Bitboard.MAX_DISTANCE];
+        return new Puzzle(coins, table.distance(coins), deadEndRatio(table.getBitboard(), coins, moves));
+    }
+
+    /**
+     * Returns an infinite stream of generated puzzles.
+     *
+     * @return the stream of puzzles
+     */
+    public Stream<Puzzle> stream() {
+        return Stream.generate(this::next);
+    }
+
+    /**
+     * Prints puzzles of the standard board and how fast they are generated.
+     * <p>
+     * Usage: {@code PuzzleGenerator [easy|medium|hard] [count]}, 10 medium puzzles by default.
+     *
+     * @param args the difficulty and the number of puzzles
+     */
+    public static void main(String[] args) {
+        Difficulty difficulty = switch (args.length > 0 ? args[0] : "medium") {
+            case "easy" -> Difficulty.EASY;
+            case "hard" -> Difficulty.HARD;
+            default -> Difficulty.MEDIUM;
+        };
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        var generator = new PuzzleGenerator(difficulty, RandomGenerator.getDefault());
+        long start = System.nanoTime();
+        var puzzles = generator.stream().limit(count).toList();
+        long elapsed = System.nanoTime() - start;
+        puzzles.stream().limit(10).forEach(puzzle -> System.out.printf("%s%n%d moves, dead-end ratio %.2f%n%n",
+                puzzle.toCoinState(), puzzle.optimalMoves(), puzzle.deadEndRatio()));
+        System.out.printf("%d puzzles of %d candidates in %.3f ms (%.0f puzzles/s)%n",
+                count, generator.getCandidateCount(), elapsed / 1e6, count * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,272 @@
+package puzzle.solver;
+
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.model.PlacementIndex;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy view of the positions reachable from a start position and of the moves between them.
+ * <p>
+ * The positions are produced by a search that runs only as far as the stream is consumed, so a stream can be
+ * limited or short-circuited without exploring the whole space, and positions are emitted as soon as they are
+ * discovered. Positions are packed as in {@link Bitboard}. Every position is emitted exactly once, also from
+ * parallel streams: the spliterators share a set of discovered positions and each splits off half of the
+ * positions it has discovered but not yet emitted. Sequential streams emit the positions in breadth-first
+ * order.
+ * <p>
+ * Besides the positions still to be emitted, memory holds the set of discovered positions: a bitmap indexed by
+ * the rank of the placement, see {@link PlacementIndex}, unless there are more than 2<sup>31</sup> placements,
+ * then a concurrent hash set.
+ */
+public final class StateSpace {
+
+    private static final long BITMAP_MAX_PLACEMENTS = 1L << 31;
+
+    private static final int SPLIT_THRESHOLD = 64;
+
+    /**
+     * A move between two positions.
+     *
+     * @param source the position before the move
+     * @param target the position after the move
+     * @param move the move packed by {@link Bitboard#packMove(int, int)}
+     */
+    public record Edge(long source, long target, int move) {
+    }
+
+    private final Bitboard bitboard;
+    private final long start;
+
+    /**
+     * Creates the space of positions reachable on the specified board from the specified position.
+     *
+     * @param bitboard the rules of the board
+     * @param start the coins on the board at the start
+     * @throws IllegalArgumentException if a coin is off the board
+     */
+    public StateSpace(Bitboard bitboard, long start) {
+        if ((start & ~bitboard.fullMask()) != 0) {
+            throw new IllegalArgumentException("Coin off the board: " + Long.toBinaryString(start));
+        }
+        this.bitboard = bitboard;
+        this.start = start;
+    }
+
+    /**
+     * Returns the space of positions reachable from the start of the standard puzzle.
+     *
+     * @return the state space of the standard puzzle
+     */
+    public static StateSpace standard() {
+        return new StateSpace(Bitboard.STANDARD, new CoinState().getCoins());
+    }
+
+    /**
+     * Returns the rules of the board.
+     *
+     * @return the rules of the board
+     */
+    public Bitboard getBitboard() {
+        return bitboard;
+    }
+
+    /**
+     * Returns a new spliterator over the packed reachable positions, starting with the start position.
+     *
+     * @return the spliterator
+     */
+    public Spliterator.OfLong spliterator() {
+        return new StateSpliterator(createVisited(), new long[]{start}, 1);
+    }
+
+    /**
+     * Returns a stream of the packed reachable positions, starting with the start position.
+     *
+     * @param parallel whether the stream is parallel
+     * @return the stream of positions
+     */
+    public LongStream states(boolean parallel) {
+        return StreamSupport.longStream(spliterator(), parallel);
+    }
+
+    /**
+     * Returns a stream of the legal moves from every reachable position.
+     *
+     * @param parallel whether the stream is parallel
+     * @return the stream of moves
+     */
+    public Stream<Edge> edges(boolean parallel) {
+        int maxMoves = bitboard.cells() * bitboard.cells();
+        return states(parallel).boxed().flatMap(coins -> {
+            int[] moves = new int[maxMoves];
+            int count = bitboard.legalMoves(coins, moves);
+            Edge[] edges = new Edge[count];
+            for (var i = 0; i < count; i++) {
+                int move = moves[i];
+                edges[i] = new Edge(coins, bitboard.move(coins, Bitboard.from(move), Bitboard.to(move)), move);
+            }
+            return Arrays.stream(edges);
+        });
+    }
+
+    /**
+     * Returns a stream of the reachable positions as boards of the standard puzzle.
+     *
+     * @param parallel whether the stream is parallel
+     * @return the stream of boards
+     * @throws UnsupportedOperationException if the space does not belong to the standard board
+     */
+    public Stream<CoinState> coinStates(boolean parallel) {
+        if (bitboard != Bitboard.STANDARD) {
+            throw new UnsupportedOperationException("CoinState only supports the standard board");
+        }
+        return states(parallel).mapToObj(CoinState::of);
+    }
+
+    private Visited createVisited() {
+        Visited visited;
+        var placements = PlacementIndex.of(bitboard, Long.bitCount(start));
+        if (placements.size() <= BITMAP_MAX_PLACEMENTS) {
+            var bitmap = new AtomicLongArray((int) ((placements.size() + 63) >>> 6));
+            visited = coins -> {
+                long rank = placements.rank(coins);
+                int word = (int) (rank >>> 6);
+                long bit = 1L << rank;
+                long current = bitmap.get(word);
+                while ((current & bit) == 0) {
+                    long witness = bitmap.compareAndExchange(word, current, current | bit);
+                    if (witness == current) {
+                        return true;
+                    }
+                    current = witness;
+                }
+                return false;
+            };
+        } else {
+            Set<Long> set = ConcurrentHashMap.newKeySet();
+            visited = set::add;
+        }
+        visited.add(start);
+        return visited;
+    }
+
+    /**
+     * Set of discovered positions shared by the spliterators of one stream.
+     */
+    @FunctionalInterface
+    private interface Visited {
+
+        /**
+         * Marks a position as discovered.
+         *
+         * @return {@code true} if the position had not been discovered before
+         */
+        boolean add(long coins);
+    }
+
+    private final class StateSpliterator implements Spliterator.OfLong {
+
+        private final Visited visited;
+
+        /**
+         * Discovered positions, those between {@code expanded} and {@code tail} not expanded yet. The positions
+         * from {@code head} to {@code expanded} are expanded and wait to be emitted.
+         */
+        private long[] queue;
+        private int head;
+        private int expanded;
+        private int tail;
+
+        StateSpliterator(Visited visited, long[] queue, int size) {
+            this.visited = visited;
+            this.queue = queue;
+            this.tail = size;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (head == tail) {
+                return false;
+            }
+            if (head == expanded) {
+                expandNext();
+            }
+            action.accept(queue[head++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            while (head < tail) {
+                if (head == expanded) {
+                    expandNext();
+                }
+                action.accept(queue[head++]);
+            }
+        }
+
+        private void expandNext() {
+            long coins = queue[expanded++];
+            for (long mobile = bitboard.mobile(coins); mobile != 0; mobile &= mobile - 1) {
+                int from = Long.numberOfTrailingZeros(mobile);
+                for (long targets = bitboard.targets(coins, from); targets != 0; targets &= targets - 1) {
+                    long next = bitboard.move(coins, from, Long.numberOfTrailingZeros(targets));
+                    if (visited.add(next)) {
+                        push(next);
+                    }
+                }
+            }
+        }
+
+        private void push(long coins) {
+            if (tail == queue.length) {
+                if (head > queue.length / 2) {
+                    // Reclaim the space of the emitted positions instead of growing
+                    System.arraycopy(queue, head, queue, 0, tail - head);
+                    expanded -= head;
+                    tail -= head;
+                    head = 0;
+                } else {
+                    queue = Arrays.copyOf(queue, Math.max(16, queue.length * 2));
+                }
+            }
+            queue[tail++] = coins;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            // Search ahead a little, so that a spliterator holding only the start position can be split too
+            while (tail - expanded < SPLIT_THRESHOLD && expanded < tail && expanded - head < SPLIT_THRESHOLD) {
+                expandNext();
+            }
+            int pending = tail - expanded;
+            if (pending < 2) {
+                return null;
+            }
+            int half = pending / 2;
+            long[] split = Arrays.copyOfRange(queue, tail - half, tail);
+            tail -= half;
+            return new StateSpliterator(visited, split, half);
+        }
+
+        @Override
+        public long estimateSize() {
+            return tail == head ? 0 : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL;
+        }
+    }
+}
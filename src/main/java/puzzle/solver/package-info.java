@@ -1,4 +1,36 @@
 /**
  * This package contains Main method for generating a puzzle solution using Breadth-First Search algorithm.
+ *
+ * <p>This package also has:
+ * <ul>
+ *     <li>
+ *         {@link puzzle.solver.DistanceTable}: The precomputed number of moves needed to solve the puzzle from
+ *         every placement of the coins, used for hints and playing a solution from any position.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.StateSpace}: A lazy, splittable stream of the positions reachable from a start
+ *         position and of the moves between them.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.ExternalBreadthFirstSearch}: A breadth-first search keeping its layers in sorted
+ *         files on disk, for state spaces that do not fit in memory.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.PuzzleGenerator}: Draws start positions whose optimal solution length and dead-end
+ *         ratio fall in a requested band.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.PatternDatabase}: Additive pattern databases estimating the moves left in the
+ *         labelled puzzle, cached as binary resources.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.LabelledSolver}: Finds optimal solutions of the labelled puzzle by A* search
+ *         guided by the pattern databases.
+ *     </li>
+ *     <li>
+ *         {@link puzzle.solver.AsyncSolver}: Solves the puzzle in the background, publishing its progress and
+ *         stopping when cancelled or out of time or nodes with the best partial result.
+ *     </li>
+ * </ul>
  */
 package puzzle.solver;
\ No newline at end of file
@@ -2,14 +2,29 @@ package puzzle.util;
 
 
 import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
 import puzzle.TwoPhaseMoveState;
+import puzzle.model.Bitboard;
 import puzzle.model.CoinState;
+import puzzle.model.MoveListener;
 import puzzle.model.Position;
+import puzzle.model.TwoPhaseMoves;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Utility class for selecting moves in a board game.
  * Manages the state of move selection and provides methods to facilitate player moves.
+ * <p>
+ * When a coin is selected, all squares it may move to are computed at once as a bitmask, see
+ * {@link Bitboard#targets(long, int)}, and published as an observable set for the UI to highlight.
+ * Checking the target of the move is then a single bit test.
+ * <p>
+ * A selector that is {@link #attach() attached} to its model clears the selection when a move is made past
+ * it, e.g. by undoing on the model directly; {@link #detach()} removes it from the listeners of the model.
  */
 public class BoardGameMoveSelector {
 
@@ -27,6 +42,11 @@ public class BoardGameMoveSelector {
     private boolean invalidSelection;
     private Position from;
     private Position to;
+    private long targets;
+    private final ObservableSet<Position> legalTargets = FXCollections.observableSet(new HashSet<>());
+    private final ObservableSet<Position> readOnlyLegalTargets = FXCollections.unmodifiableObservableSet(legalTargets);
+    private final MoveListener moveListener = (moveFrom, moveTo, mobility) -> moved();
+    private boolean attached;
 
     /**
      * Constructs a BoardGameMoveSelector with the specified CoinState model.
@@ -39,6 +59,37 @@ public class BoardGameMoveSelector {
         invalidSelection = false;
     }
 
+    /**
+     * Registers the selector with its model, so that a move made past the selector clears the selection.
+     * Calling this method again has no effect.
+     */
+    public void attach() {
+        if (!attached) {
+            model.addMoveListener(moveListener);
+            attached = true;
+        }
+    }
+
+    /**
+     * Removes the selector from the listeners of its model, undoing {@link #attach()}.
+     */
+    public void detach() {
+        if (attached) {
+            model.removeMoveListener(moveListener);
+            attached = false;
+        }
+    }
+
+    /**
+     * Clears the selection after a move made past the selector, which invalidates the computed targets.
+     * Moves made by the selector itself find the selection already cleared.
+     */
+    private void moved() {
+        if (phase.get() != Phase.SELECT_FROM) {
+            reset();
+        }
+    }
+
     /**
      * Retrieves the current phase of move selection.
      *
@@ -87,6 +138,7 @@ public class BoardGameMoveSelector {
     public void selectFrom(Position p) {
         if (model.isLegalToMoveFrom(p)) {
             from = p;
+            updateTargets(model.getBitboard().targets(model.getCoins(), index(p)));
             phase.set(Phase.SELECT_TO);
             invalidSelection = false;
         } else {
@@ -94,6 +146,47 @@ public class BoardGameMoveSelector {
         }
     }
 
+    /**
+     * Replaces the legal targets, changing the observable set only where it differs.
+     *
+     * @param mask The squares the selected coin may move to.
+     */
+    private void updateTargets(long mask) {
+        targets = mask;
+        Bitboard bitboard = model.getBitboard();
+        Set<Position> positions = new HashSet<>();
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            positions.add(Position.of(bitboard, index));
+        }
+        legalTargets.retainAll(positions);
+        legalTargets.addAll(positions);
+    }
+
+    private int index(Position p) {
+        return model.getBitboard().index(p.row(), p.col());
+    }
+
+    /**
+     * Checks if the selected coin may move to the specified position.
+     *
+     * @param p The position to check.
+     * @return {@code true} if a coin is selected and may move to the position, otherwise {@code false}.
+     */
+    public boolean isLegalTarget(Position p) {
+        return model.getBitboard().isOnBoard(p.row(), p.col()) && (targets >>> index(p) & 1) != 0;
+    }
+
+    /**
+     * Retrieves the squares the selected coin may move to. The set is empty unless a coin is selected,
+     * and it is updated whenever the selection changes.
+     *
+     * @return A read-only observable set of the legal targets.
+     */
+    public ObservableSet<Position> getLegalTargets() {
+        return readOnlyLegalTargets;
+    }
+
     /**
      * Completes the move selection to the specified position.
      *
@@ -103,9 +196,9 @@ public class BoardGameMoveSelector {
         if (from == null) {
             throw new IllegalStateException();
         }
-        TwoPhaseMoveState.TwoPhaseMove<Position> move = new TwoPhaseMoveState.TwoPhaseMove<>(from, p);
-        if (model.isLegalMove(move)) {
+        if (isLegalTarget(p)) {
             to = p;
+            updateTargets(0);
             phase.set(Phase.READY_TO_MOVE);
             invalidSelection = false;
         } else {
@@ -158,8 +251,10 @@ public class BoardGameMoveSelector {
             throw new IllegalStateException();
         }
 
-        model.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(from, to));
+        var move = TwoPhaseMoves.of(from, to);
+        // Cleared before the move, so that the listener of an attached selector has nothing to clear
         reset();
+        model.makeMove(move);
     }
 
     /**
@@ -169,7 +264,7 @@ public class BoardGameMoveSelector {
      * @return {@code true} if it is legal to move from the specified position, otherwise {@code false}.
      */
     public boolean isLegalToMoveFrom(Position p) {
-        return model.getSquare(p) == model.getSquare(from);
+        return model.isLegalToMoveFrom(p);
     }
 
     /**
@@ -179,18 +274,39 @@ public class BoardGameMoveSelector {
      * @return True if the move is legal, otherwise false.
      */
     public boolean isLegalMove(TwoPhaseMoveState.TwoPhaseMove<Position> move) {
-        Position from = move.from();
-        Position to = move.to();
-        int steps = Math.abs(to.row() - from.row()) + Math.abs(to.col() - from.col());
+        if (move.from().equals(from) && phase.get() == Phase.SELECT_TO) {
+            return isLegalTarget(move.to());
+        }
         return model.isLegalMove(move);
     }
 
+    /**
+     * Takes back the last move and clears the current selection.
+     *
+     * @return {@code true} if a move was taken back, otherwise {@code false}.
+     */
+    public boolean undo() {
+        reset();
+        return model.undo();
+    }
+
+    /**
+     * Makes the last move taken back again and clears the current selection.
+     *
+     * @return {@code true} if a move was made again, otherwise {@code false}.
+     */
+    public boolean redo() {
+        reset();
+        return model.redo();
+    }
+
     /**
      * Resets the move selector to its initial state.
      */
     public void reset() {
         from = null;
         to = null;
+        updateTargets(0);
         phase.set(Phase.SELECT_FROM);
         invalidSelection = false;
     }
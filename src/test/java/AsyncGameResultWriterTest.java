@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+import puzzle.result.AsyncGameResultWriter;
+import puzzle.result.GameResult;
+import puzzle.result.GameResultManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncGameResultWriterTest {
+
+    /**
+     * Blocks every write until released and records the size of every batch.
+     */
+    private static class BlockingManager implements GameResultManager {
+
+        private final List<GameResult> results = new CopyOnWriteArrayList<>();
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public List<GameResult> add(GameResult result) throws IOException {
+            return addAll(List.of(result));
+        }
+
+        @Override
+        public List<GameResult> addAll(List<GameResult> batch) throws IOException {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (batch.stream().anyMatch(result -> result.getNameOfPlayer().equals("fail"))) {
+                throw new IOException("Disk full");
+            }
+            batches.add(batch.size());
+            results.addAll(batch);
+            return new ArrayList<>(results);
+        }
+
+        @Override
+        public List<GameResult> getAll() {
+            return new ArrayList<>(results);
+        }
+    }
+
+    @Test
+    public void testCoalescesResultsQueuedDuringWrite() throws InterruptedException {
+        var manager = new BlockingManager();
+        try (var writer = new AsyncGameResultWriter(manager)) {
+            var first = writer.submit(GameResults.result("a", true, 11));
+            manager.entered.await();
+            List<CompletableFuture<Void>> queued = new ArrayList<>();
+            for (String name : new String[]{"b", "c", "d"}) {
+                queued.add(writer.submit(GameResults.result(name, true, 11)));
+            }
+            assertEquals(3, writer.getPendingCount());
+            manager.released.countDown();
+            first.join();
+            queued.forEach(CompletableFuture::join);
+        }
+        assertEquals(List.of(1, 3), manager.batches);
+        assertEquals(4, manager.results.size());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws InterruptedException {
+        var manager = new BlockingManager();
+        try (var writer = new AsyncGameResultWriter(manager, 2)) {
+            var first = writer.submit(GameResults.result("a", true, 11));
+            manager.entered.await();
+            var second = writer.submit(GameResults.result("b", true, 11));
+            var third = writer.submit(GameResults.result("c", true, 11));
+            var rejected = writer.submit(GameResults.result("d", true, 11));
+            var e = assertThrows(CompletionException.class, rejected::join);
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+            manager.released.countDown();
+            first.join();
+            second.join();
+            third.join();
+        }
+        assertEquals(3, manager.results.size());
+    }
+
+    @Test
+    public void testCloseWritesPendingResultsAndRejectsLaterOnes() throws InterruptedException {
+        var manager = new BlockingManager();
+        var writer = new AsyncGameResultWriter(manager);
+        var first = writer.submit(GameResults.result("a", true, 11));
+        manager.entered.await();
+        var second = writer.submit(GameResults.result("b", true, 11));
+        var third = writer.submit(GameResults.result("c", true, 11));
+        Thread.ofVirtual().start(() -> {
+            try {
+                // Let close() start waiting before the write completes
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            manager.released.countDown();
+        });
+        writer.close();
+        assertTrue(first.isDone() && second.isDone() && third.isDone());
+        assertFalse(second.isCompletedExceptionally());
+        assertEquals(3, manager.results.size());
+        var late = writer.submit(GameResults.result("d", true, 11));
+        var e = assertThrows(CompletionException.class, late::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        writer.close();
+    }
+
+    @Test
+    public void testFailedWriteFailsItsBatch() {
+        var manager = new BlockingManager();
+        manager.released.countDown();
+        try (var writer = new AsyncGameResultWriter(manager)) {
+            var failed = writer.submit(GameResults.result("fail", true, 11));
+            var e = assertThrows(CompletionException.class, failed::join);
+            assertTrue(e.getCause() instanceof IOException);
+            writer.submit(GameResults.result("a", true, 11)).join();
+        }
+        assertEquals(1, manager.results.size());
+    }
+}
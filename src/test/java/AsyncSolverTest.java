@@ -0,0 +1,193 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.solver.AsyncSolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSolverTest {
+
+    private static long play(Bitboard bitboard, long coins, int[] moves) {
+        for (int move : moves) {
+            assertTrue(bitboard.isLegalMove(coins, Bitboard.from(move), Bitboard.to(move)));
+            coins = bitboard.move(coins, Bitboard.from(move), Bitboard.to(move));
+        }
+        return coins;
+    }
+
+    @Test
+    public void testSolvesStandardPuzzle() {
+        var state = new CoinState();
+        Bitboard bitboard = state.getBitboard();
+        var search = new AsyncSolver(bitboard, Runnable::run, Runnable::run).solve(state.getCoins(), AsyncSolver.Budget.UNLIMITED);
+        var result = search.result().join();
+        assertTrue(result.isSolved());
+        assertEquals(11, result.moves().length);
+        assertEquals(result.moves().length, result.depth());
+        assertEquals(result.position(), play(bitboard, state.getCoins(), result.moves()));
+        assertTrue(bitboard.isSolved(result.position()));
+    }
+
+    /**
+     * Collects the progress reports of a search.
+     */
+    private static class Reports implements Flow.Subscriber<AsyncSolver.Progress> {
+
+        final List<AsyncSolver.Progress> reports = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AsyncSolver.Progress item) {
+            reports.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        void assertOneReportPerLevel() {
+            assertEquals(12, reports.size());
+            for (var i = 0; i < reports.size(); i++) {
+                assertEquals(i, reports.get(i).depth());
+            }
+            assertEquals(1, reports.get(0).frontierSize());
+        }
+    }
+
+    @Test
+    public void testPublishesProgress() {
+        var state = new CoinState();
+        List<Runnable> tasks = new ArrayList<>();
+        var reports = new Reports();
+        var search = new AsyncSolver(state.getBitboard(), tasks::add, tasks::add)
+                .solve(state.getCoins(), AsyncSolver.Budget.UNLIMITED, reports);
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+        assertTrue(search.result().join().isSolved());
+        assertEquals(0, reports.completed.getCount());
+        reports.assertOneReportPerLevel();
+    }
+
+    @Test
+    public void testSubscriberReceivesFirstReportOnPool() throws InterruptedException {
+        var state = new CoinState();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (var run = 0; run < 20; run++) {
+                // The search starts at once on the pool, before solve returns
+                var reports = new Reports();
+                var search = new AsyncSolver(state.getBitboard(), executor, executor)
+                        .solve(state.getCoins(), AsyncSolver.Budget.UNLIMITED, reports);
+                assertTrue(search.result().join().isSolved());
+                assertTrue(reports.completed.await(10, TimeUnit.SECONDS));
+                reports.assertOneReportPerLevel();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSearchDoesNotRunOnProgressExecutor() throws Exception {
+        var state = new CoinState();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            var reports = new Reports();
+            var search = new AsyncSolver(state.getBitboard(), executor)
+                    .solve(state.getCoins(), AsyncSolver.Budget.UNLIMITED, reports);
+            // The search ends on its own thread while the only thread of the executor is busy
+            assertTrue(search.result().get(10, TimeUnit.SECONDS).isSolved());
+            assertTrue(reports.reports.isEmpty());
+            release.countDown();
+            assertTrue(reports.completed.await(10, TimeUnit.SECONDS));
+            reports.assertOneReportPerLevel();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNodeBudgetKeepsBestPosition() {
+        var state = new CoinState();
+        Bitboard bitboard = state.getBitboard();
+        var result = new AsyncSolver(bitboard, Runnable::run, Runnable::run)
+                .solve(state.getCoins(), AsyncSolver.Budget.ofNodes(100)).result().join();
+        assertEquals(AsyncSolver.Status.OUT_OF_NODES, result.status());
+        assertFalse(result.isSolved());
+        assertEquals(100, result.nodes());
+        assertTrue(Long.bitCount(result.position() & bitboard.corners()) > 0);
+        assertEquals(result.position(), play(bitboard, state.getCoins(), result.moves()));
+    }
+
+    @Test
+    public void testTimeBudget() {
+        var state = new CoinState();
+        var result = new AsyncSolver(state.getBitboard(), Runnable::run, Runnable::run)
+                .solve(state.getCoins(), AsyncSolver.Budget.ofTime(Duration.ZERO)).result().join();
+        assertEquals(AsyncSolver.Status.OUT_OF_TIME, result.status());
+    }
+
+    @Test
+    public void testCancel() {
+        var state = new CoinState();
+        List<Runnable> tasks = new ArrayList<>();
+        var search = new AsyncSolver(state.getBitboard(), tasks::add, tasks::add)
+                .solve(state.getCoins(), AsyncSolver.Budget.UNLIMITED);
+        search.cancel();
+        tasks.remove(0).run();
+        var result = search.result().join();
+        assertEquals(AsyncSolver.Status.CANCELLED, result.status());
+        assertEquals(0, result.moves().length);
+        assertEquals(state.getCoins(), result.position());
+    }
+
+    @Test
+    public void testRejectsTooManyPlacements() {
+        Bitboard bitboard = Bitboard.of(Bitboard.MAX_SIZE);
+        long coins = bitboard.fullMask() >>> bitboard.cells() / 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncSolver(bitboard, Runnable::run, Runnable::run).solve(coins, AsyncSolver.Budget.ofNodes(1)));
+    }
+
+    @Test
+    public void testUnsolvable() {
+        Bitboard bitboard = Bitboard.STANDARD;
+        long coins = 1L << bitboard.index(0, 0) | 1L << bitboard.index(3, 3);
+        var result = new AsyncSolver(bitboard, Runnable::run, Runnable::run)
+                .solve(coins, AsyncSolver.Budget.UNLIMITED).result().join();
+        assertEquals(AsyncSolver.Status.UNSOLVABLE, result.status());
+        assertEquals(1, result.nodes());
+        assertEquals(0, result.depth());
+    }
+}
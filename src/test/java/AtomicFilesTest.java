@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.result.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplacesContent() throws IOException {
+        Path file = directory.resolve("file.txt");
+        AtomicFiles.writeText(file, writer -> writer.write("first"));
+        AtomicFiles.writeText(file, writer -> writer.write("zweite Fassung äöü"));
+        assertEquals("zweite Fassung äöü", Files.readString(file));
+        AtomicFiles.write(file, out -> out.write(new byte[]{1, 2, 3}));
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(file));
+        assertFalse(Files.exists(directory.resolve("file.txt.tmp")));
+    }
+
+    @Test
+    public void testFailedWriteKeepsOldContent() throws IOException {
+        Path file = directory.resolve("file.txt");
+        AtomicFiles.writeText(file, writer -> writer.write("old"));
+        var e = assertThrows(IOException.class, () -> AtomicFiles.writeText(file, writer -> {
+            writer.write("half of the new");
+            throw new IOException("Disk full");
+        }));
+        assertEquals("Disk full", e.getMessage());
+        assertEquals("old", Files.readString(file));
+        assertFalse(Files.exists(directory.resolve("file.txt.tmp")));
+        assertThrows(IllegalStateException.class, () -> AtomicFiles.write(file, out -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("old", Files.readString(file));
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.BatchEvaluator;
+import puzzle.model.Bitboard;
+import puzzle.model.PlacementIndex;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEvaluatorTest {
+
+    private static void assertMatchesBitboard(BatchEvaluator evaluator, long[] boards, int[] from) {
+        Bitboard bitboard = evaluator.getBitboard();
+        int length = boards.length;
+        long[] mobile = new long[length];
+        long[] targets = new long[length];
+        boolean[] solved = new boolean[length];
+        boolean[] gameOver = new boolean[length];
+        evaluator.mobile(boards, mobile, length);
+        evaluator.targets(boards, from, targets, length);
+        evaluator.solved(boards, solved, length);
+        evaluator.gameOver(boards, gameOver, length);
+        for (var i = 0; i < length; i++) {
+            assertEquals(bitboard.mobile(boards[i]), mobile[i]);
+            assertEquals(bitboard.targets(boards[i], from[i]), targets[i]);
+            assertEquals(bitboard.isSolved(boards[i]), solved[i]);
+            assertEquals(bitboard.isGameOver(boards[i]), gameOver[i]);
+        }
+    }
+
+    @Test
+    public void testAllPlacementsOfStandardBoard() {
+        var index = PlacementIndex.of(Bitboard.STANDARD, 4);
+        // An odd number of boards, so that some are left over after the last full vector
+        int length = (int) index.size() * 16 - 1;
+        long[] boards = new long[length];
+        int[] from = new int[length];
+        for (var i = 0; i < length; i++) {
+            boards[i] = index.unrank(i / 16);
+            from[i] = i % 16;
+        }
+        assertMatchesBitboard(BatchEvaluator.create(Bitboard.STANDARD), boards, from);
+        assertMatchesBitboard(BatchEvaluator.scalar(Bitboard.STANDARD), boards, from);
+    }
+
+    @Test
+    public void testRandomBoards() {
+        var random = new Random(44);
+        for (var size = 2; size <= Bitboard.MAX_SIZE; size++) {
+            Bitboard bitboard = Bitboard.of(size);
+            long[] boards = new long[1001];
+            int[] from = new int[boards.length];
+            for (var i = 0; i < boards.length; i++) {
+                boards[i] = random.nextLong() & random.nextLong() & bitboard.fullMask();
+                from[i] = random.nextInt(bitboard.cells());
+            }
+            assertMatchesBitboard(BatchEvaluator.create(bitboard), boards, from);
+        }
+    }
+
+    @Test
+    public void testCreateUsesVectorApiWhenPresent() {
+        // The tests run with --add-modules jdk.incubator.vector, otherwise only the scalar evaluator is checked
+        boolean vectorApi = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorApi ? "puzzle.model.VectorBatchEvaluator" : "puzzle.model.ScalarBatchEvaluator",
+                BatchEvaluator.create(Bitboard.STANDARD).getClass().getName());
+    }
+
+    @Test
+    public void testPartialLength() {
+        var evaluator = BatchEvaluator.create(Bitboard.STANDARD);
+        long[] boards = {0b1111, 0b1111, 0b1111};
+        boolean[] solved = {true, true, true};
+        evaluator.solved(boards, solved, 2);
+        assertArrayEquals(new boolean[]{false, false, true}, solved);
+    }
+}
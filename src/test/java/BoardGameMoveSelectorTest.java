@@ -6,6 +6,8 @@ import puzzle.model.Position;
 import puzzle.model.Square;
 import puzzle.util.BoardGameMoveSelector;
 
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -18,6 +20,7 @@ class BoardGameMoveSelectorTest {
     public void setUp() {
         coinState = new CoinState();
         moveSelector = new BoardGameMoveSelector(coinState);
+        moveSelector.attach();
     }
 
     @Test
@@ -99,4 +102,77 @@ class BoardGameMoveSelectorTest {
     @Test
     void reset() {
     }
-}
\ No newline at end of file
+
+    @Test
+    void undoRedo() {
+        Position from = new Position(1, 1);
+        Position to = new Position(0, 1);
+        moveSelector.selectFrom(from);
+        moveSelector.selectTo(to);
+        moveSelector.makeMove();
+
+        moveSelector.selectFrom(new Position(2, 1));
+        assertTrue(moveSelector.undo());
+        assertEquals(BoardGameMoveSelector.Phase.SELECT_FROM, moveSelector.getPhase());
+        assertEquals(Square.COIN, coinState.getSquare(from));
+        assertEquals(Square.NONE, coinState.getSquare(to));
+        assertFalse(moveSelector.undo());
+
+        assertTrue(moveSelector.redo());
+        assertEquals(Square.NONE, coinState.getSquare(from));
+        assertEquals(Square.COIN, coinState.getSquare(to));
+    }
+
+    @Test
+    void legalTargets() {
+        assertTrue(moveSelector.getLegalTargets().isEmpty());
+        moveSelector.selectFrom(new Position(1, 1));
+        assertEquals(Set.of(new Position(0, 1), new Position(1, 0)), moveSelector.getLegalTargets());
+        assertTrue(moveSelector.isLegalTarget(new Position(0, 1)));
+        assertFalse(moveSelector.isLegalTarget(new Position(2, 1)));
+        assertFalse(moveSelector.isLegalTarget(new Position(-1, 1)));
+
+        moveSelector.selectFrom(new Position(2, 2));
+        assertEquals(Set.of(new Position(3, 2), new Position(2, 3)), moveSelector.getLegalTargets());
+
+        moveSelector.selectTo(new Position(3, 2));
+        assertTrue(moveSelector.isReadyToMove());
+        assertTrue(moveSelector.getLegalTargets().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> moveSelector.getLegalTargets().clear());
+    }
+
+    @Test
+    void legalTargetsClearedByUndo() {
+        moveSelector.selectFrom(new Position(1, 1));
+        moveSelector.selectTo(new Position(0, 1));
+        moveSelector.makeMove();
+        moveSelector.selectFrom(new Position(2, 1));
+        assertFalse(moveSelector.getLegalTargets().isEmpty());
+        coinState.undo();
+        assertEquals(BoardGameMoveSelector.Phase.SELECT_FROM, moveSelector.getPhase());
+        assertTrue(moveSelector.getLegalTargets().isEmpty());
+    }
+
+    @Test
+    void detachedSelectorKeepsSelection() {
+        moveSelector.selectFrom(new Position(1, 1));
+        moveSelector.selectTo(new Position(0, 1));
+        moveSelector.makeMove();
+        // Attaching twice registers once, so a single detach removes the listener
+        moveSelector.attach();
+        moveSelector.detach();
+        moveSelector.selectFrom(new Position(2, 1));
+        coinState.undo();
+        assertEquals(BoardGameMoveSelector.Phase.SELECT_TO, moveSelector.getPhase());
+
+        moveSelector.attach();
+        coinState.redo();
+        assertEquals(BoardGameMoveSelector.Phase.SELECT_FROM, moveSelector.getPhase());
+    }
+
+    @Test
+    void isLegalToMoveFrom() {
+        assertTrue(moveSelector.isLegalToMoveFrom(new Position(1, 1)));
+        assertFalse(moveSelector.isLegalToMoveFrom(new Position(0, 0)));
+    }
+}
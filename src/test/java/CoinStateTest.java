@@ -2,10 +2,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import puzzle.TwoPhaseMoveState;
 import puzzle.model.CoinState;
+import puzzle.model.MoveListener;
 import puzzle.model.Position;
 import puzzle.model.Square;
+import puzzle.model.TwoPhaseMoves;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -143,4 +146,93 @@ public class CoinStateTest {
         assertNotEquals(coinState.hashCode(), puzzleState.hashCode());
     }
 
+    @Test
+    public void testMoveListener() {
+        long[] event = new long[3];
+        MoveListener listener = (from, to, mobility) -> {
+            event[0] = from;
+            event[1] = to;
+            event[2] = mobility;
+        };
+        coinState.addMoveListener(listener);
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(0, 1)));
+        assertEquals(5, event[0]);
+        assertEquals(1, event[1]);
+        assertEquals(coinState.getBitboard().mobile(coinState.getCoins()), event[2]);
+
+        coinState.removeMoveListener(listener);
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(2, 1), new Position(3, 1)));
+        assertEquals(5, event[0]);
+    }
+
+    @Test
+    public void testIllegalMoveIsNotReported() {
+        int[] calls = new int[1];
+        coinState.addMoveListener((from, to, mobility) -> calls[0]++);
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(3, 3)));
+        assertEquals(0, calls[0]);
+    }
+
+    @Test
+    public void testUndoRedo() {
+        CoinState start = (CoinState) coinState.clone();
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(0, 1)));
+        CoinState afterFirst = (CoinState) coinState.clone();
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(2, 1), new Position(3, 1)));
+        CoinState afterSecond = (CoinState) coinState.clone();
+        assertEquals(2, coinState.getHistory().getPosition());
+
+        assertTrue(coinState.undo());
+        assertEquals(afterFirst, coinState);
+        assertTrue(coinState.undo());
+        assertEquals(start, coinState);
+        assertFalse(coinState.undo());
+
+        assertTrue(coinState.redo());
+        assertTrue(coinState.redo());
+        assertEquals(afterSecond, coinState);
+        assertFalse(coinState.redo());
+    }
+
+    @Test
+    public void testMoveAfterUndoDiscardsRedo() {
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(0, 1)));
+        coinState.undo();
+        coinState.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(2, 2), new Position(2, 3)));
+        assertFalse(coinState.getHistory().canRedo());
+        assertEquals(1, coinState.getHistory().size());
+        assertEquals(Square.COIN, coinState.getSquare(new Position(1, 1)));
+        assertEquals(Square.COIN, coinState.getSquare(new Position(2, 3)));
+    }
+
+    @Test
+    public void testOf() {
+        assertEquals(coinState, CoinState.of(coinState.getCoins()));
+        CoinState corners = CoinState.of(coinState.getBitboard().corners());
+        assertTrue(corners.isSolved());
+        assertThrows(IllegalArgumentException.class, () -> CoinState.of(1L << 16));
+    }
+
+    @Test
+    public void testOfPositions() {
+        CoinState corners = CoinState.of(List.of(new Position(0, 0), new Position(0, 3), new Position(3, 0), new Position(3, 3)));
+        assertTrue(corners.isSolved());
+        assertThrows(IllegalArgumentException.class, () -> CoinState.of(List.of(new Position(4, 0))));
+        assertThrows(IllegalArgumentException.class, () -> CoinState.of(List.of(new Position(1, 1), new Position(1, 1))));
+    }
+
+    @Test
+    public void testInternedPositionsAndMoves() {
+        assertSame(Position.of(2, 3), Position.of(2, 3));
+        assertEquals(new Position(2, 3), Position.of(2, 3));
+        assertEquals(new Position(-1, 9), Position.of(-1, 9));
+        assertSame(TwoPhaseMoves.of(Position.of(1, 1), Position.of(0, 1)),
+                TwoPhaseMoves.of(new Position(1, 1), new Position(0, 1)));
+        assertEquals(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(0, 1)),
+                TwoPhaseMoves.of(Position.of(1, 1), Position.of(0, 1)));
+        for (TwoPhaseMoveState.TwoPhaseMove<Position> move : coinState.getLegalMoves()) {
+            assertSame(TwoPhaseMoves.of(move.from(), move.to()), move);
+            assertSame(Position.of(move.from().row(), move.from().col()), move.from());
+        }
+    }
 }
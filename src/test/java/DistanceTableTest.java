@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.PlacementIndex;
+import puzzle.solver.DistanceTable;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceTableTest {
+
+    private static void assertBestMovesSolve(DistanceTable table) {
+        Bitboard bitboard = table.getBitboard();
+        var placements = PlacementIndex.of(bitboard, table.getCoinCount());
+        for (var rank = 0; rank < placements.size(); rank++) {
+            long coins = placements.unrank(rank);
+            int distance = table.distance(coins);
+            assertTrue(distance <= table.getMaxDistance());
+            if (distance == DistanceTable.UNSOLVABLE) {
+                assertEquals(-1, table.bestMove(coins));
+                continue;
+            }
+            for (var moves = distance; moves > 0; moves--) {
+                int move = table.bestMove(coins);
+                assertTrue(bitboard.isLegalMove(coins, Bitboard.from(move), Bitboard.to(move)));
+                coins = bitboard.move(coins, Bitboard.from(move), Bitboard.to(move));
+                assertEquals(moves - 1, table.distance(coins));
+            }
+            assertTrue(bitboard.isSolved(coins));
+        }
+    }
+
+    @Test
+    public void testBestMovesSolveEveryPlacement() {
+        assertBestMovesSolve(DistanceTable.standard());
+        DistanceTable table = DistanceTable.build(Bitboard.of(6), 5);
+        assertEquals(37, table.getMaxDistance());
+        assertBestMovesSolve(table);
+    }
+
+    @Test
+    public void testDistancesAboveByteRangeAreUnsigned() throws ReflectiveOperationException {
+        Bitboard bitboard = Bitboard.STANDARD;
+        var placements = PlacementIndex.of(bitboard, 4);
+        byte[] distances = new byte[(int) placements.size()];
+        Arrays.fill(distances, (byte) 0xFF);
+        distances[1] = (byte) 128;
+        distances[2] = (byte) DistanceTable.MAX_DISTANCE;
+        Constructor<DistanceTable> constructor = DistanceTable.class.getDeclaredConstructor(
+                Bitboard.class, PlacementIndex.class, byte[].class, int.class);
+        constructor.setAccessible(true);
+        DistanceTable table = constructor.newInstance(bitboard, placements, distances, DistanceTable.MAX_DISTANCE);
+        assertEquals(DistanceTable.UNSOLVABLE, table.distance(placements.unrank(0)));
+        assertEquals(128, table.distance(placements.unrank(1)));
+        assertEquals(DistanceTable.MAX_DISTANCE, table.distance(placements.unrank(2)));
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.solver.ExternalBreadthFirstSearch;
+import puzzle.solver.StateSpace;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalBreadthFirstSearchTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testStandardBoard() throws IOException {
+        var search = new ExternalBreadthFirstSearch(Bitboard.STANDARD, directory, ExternalBreadthFirstSearch.MIN_MEMORY_BUDGET);
+        var result = search.search(new CoinState().getCoins());
+        assertEquals(StateSpace.standard().states(false).count(), result.states());
+        assertEquals(result.states(), result.layerSizes().stream().mapToLong(Long::longValue).sum());
+        assertEquals(result.depth() + 1, result.layerSizes().size());
+        assertEquals(result.layerSizes().get(result.depth()) * Long.BYTES, Files.size(result.lastLayer()));
+    }
+
+    @Test
+    public void testLayersAreSorted() throws IOException {
+        Bitboard bitboard = Bitboard.of(5);
+        long start = 1L << bitboard.index(1, 1) | 1L << bitboard.index(1, 2)
+                | 1L << bitboard.index(2, 1) | 1L << bitboard.index(2, 2);
+        var result = new ExternalBreadthFirstSearch(bitboard, directory, 4 << 20).search(start);
+        assertEquals(new StateSpace(bitboard, start).states(true).count(), result.states());
+        try (var in = new DataInputStream(Files.newInputStream(directory.resolve("layer-0003.bin")))) {
+            long previous = in.readLong();
+            for (var i = 1; i < result.layerSizes().get(3); i++) {
+                long next = in.readLong();
+                assertTrue(previous < next);
+                previous = next;
+            }
+        }
+    }
+
+    @Test
+    public void testBudgetTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalBreadthFirstSearch(Bitboard.STANDARD, directory, 1024));
+    }
+}
@@ -0,0 +1,79 @@
+import javafx.collections.SetChangeListener;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import puzzle.GameController;
+import puzzle.model.CoinState;
+import puzzle.model.Position;
+import puzzle.util.BoardGameMoveSelector;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameControllerTest {
+
+    private GameController controller;
+    private BoardGameMoveSelector moveSelector;
+    private StackPane[][] squares;
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = GameController.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(controller, value);
+    }
+
+    /**
+     * Wires the board like {@code initialize()} does, without the controls loaded from the FXML file.
+     */
+    @BeforeEach
+    public void setUp() throws ReflectiveOperationException {
+        controller = new GameController();
+        var coinState = new CoinState();
+        moveSelector = new BoardGameMoveSelector(coinState);
+        setField("coinState", coinState);
+        setField("moveSelector", moveSelector);
+        setField("gridPane", new GridPane());
+        Method highlightTargets = GameController.class.getDeclaredMethod("highlightTargets", SetChangeListener.Change.class);
+        highlightTargets.setAccessible(true);
+        moveSelector.getLegalTargets().addListener((SetChangeListener<Position>) change -> {
+            try {
+                highlightTargets.invoke(controller, change);
+            } catch (ReflectiveOperationException e) {
+                fail(e);
+            }
+        });
+        controller.initBoard();
+        Field field = GameController.class.getDeclaredField("squares");
+        field.setAccessible(true);
+        squares = (StackPane[][]) field.get(controller);
+    }
+
+    @Test
+    public void testSquaresHaveSquareClass() {
+        for (StackPane[] row : squares) {
+            for (StackPane square : row) {
+                assertTrue(square.getStyleClass().contains("square"));
+            }
+        }
+    }
+
+    @Test
+    public void testTargetsOfSelectedCoinAreHighlighted() {
+        moveSelector.select(new Position(1, 1));
+        for (var row = 0; row < squares.length; row++) {
+            for (var col = 0; col < squares[row].length; col++) {
+                var styleClass = squares[row][col].getStyleClass();
+                boolean target = moveSelector.isLegalTarget(new Position(row, col));
+                // Both classes are needed for the .square.target rule of the stylesheet to match
+                assertEquals(target, styleClass.contains("square") && styleClass.contains("target"));
+            }
+        }
+        assertTrue(squares[0][1].getStyleClass().contains("target"));
+
+        moveSelector.reset();
+        assertFalse(squares[0][1].getStyleClass().contains("target"));
+    }
+}
@@ -0,0 +1,83 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import puzzle.result.GameResult;
+import puzzle.result.GameResultTypeAdapter;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameResultTypeAdapterTest {
+
+    private Gson gson;
+
+    @BeforeEach
+    public void setUp() {
+        gson = new GsonBuilder().registerTypeAdapter(GameResult.class, new GameResultTypeAdapter()).create();
+    }
+
+    @Test
+    public void testRead() {
+        GameResult result = gson.fromJson("{\"nameOfPlayer\":\"Jewel\",\"solved\":true,\"numberOfMoves\":32,\"duration\":\"PT1M13S\",\"extra\":[1,2]}", GameResult.class);
+        assertEquals("Jewel", result.getNameOfPlayer());
+        assertTrue(result.isSolved());
+        assertEquals(32, result.getNumberOfMoves());
+        assertEquals(Duration.ofSeconds(73), result.getDuration());
+    }
+
+    @Test
+    public void testReadDurations() {
+        assertEquals(Duration.ofHours(2).plusSeconds(5), readDuration("PT2H5S"));
+        assertEquals(Duration.ofMillis(1500), readDuration("PT1.5S"));
+        assertEquals(Duration.ofDays(1), readDuration("P1D"));
+        assertEquals(Duration.ofSeconds(-3), readDuration("PT-3S"));
+    }
+
+    @Test
+    public void testReadDurationsLikeDurationParse() {
+        for (String duration : new String[]{"PT0S", "PT1H2M3S", "PT1M", "PT0.000000001S", "PT1.123456789S",
+                "PT99999H", "PT1.S", "P2DT3H"}) {
+            assertEquals(Duration.parse(duration), readDuration(duration), duration);
+        }
+    }
+
+    @Test
+    public void testRejectsMalformedDurations() {
+        for (String duration : new String[]{"PT5S1M", "PT1H1H", "PT1M1H", "PT1S1S", "PT0.0000000001S",
+                "PT", "PTS", "PT5", "PT1.5H"}) {
+            assertThrows(DateTimeParseException.class, () -> readDuration(duration), duration);
+        }
+    }
+
+    @Test
+    public void testWriteKeepsIsoFormat() {
+        GameResult result = GameResult.builder()
+                .nameOfPlayer("Sidney")
+                .solved(false)
+                .numberOfMoves(44)
+                .duration(Duration.ofSeconds(73))
+                .build();
+        assertEquals("{\"nameOfPlayer\":\"Sidney\",\"solved\":false,\"numberOfMoves\":44,\"duration\":\"PT1M13S\"}", gson.toJson(result));
+        assertEquals(result, gson.fromJson(gson.toJson(result), GameResult.class));
+    }
+
+    @Test
+    public void testMovesRoundTrip() {
+        GameResult result = GameResult.builder()
+                .nameOfPlayer("Sidney")
+                .solved(false)
+                .numberOfMoves(2)
+                .duration(Duration.ofSeconds(5))
+                .moves("11012111")
+                .build();
+        assertEquals("{\"nameOfPlayer\":\"Sidney\",\"solved\":false,\"numberOfMoves\":2,\"duration\":\"PT5S\",\"moves\":\"11012111\"}", gson.toJson(result));
+        assertEquals(result, gson.fromJson(gson.toJson(result), GameResult.class));
+    }
+
+    private Duration readDuration(String duration) {
+        return gson.fromJson("{\"nameOfPlayer\":\"a\",\"duration\":\"" + duration + "\"}", GameResult.class).getDuration();
+    }
+}
@@ -0,0 +1,29 @@
+import puzzle.result.GameResult;
+
+import java.time.Duration;
+
+/**
+ * Builds the game results used by the tests of the result stores.
+ */
+final class GameResults {
+
+    private GameResults() {
+    }
+
+    /**
+     * Returns a result of a game that lasted a second per move.
+     *
+     * @param name the name of the player
+     * @param solved whether the puzzle was solved
+     * @param moves the number of moves
+     * @return the result
+     */
+    static GameResult result(String name, boolean solved, int moves) {
+        return GameResult.builder()
+                .nameOfPlayer(name)
+                .solved(solved)
+                .numberOfMoves(moves)
+                .duration(Duration.ofSeconds(moves))
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.server.GameServer;
+import puzzle.server.SessionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private final SessionManager sessions = new SessionManager();
+    private final Bitboard bitboard = sessions.getBitboard();
+    private String start;
+
+    @BeforeEach
+    public void setUp() {
+        start = "OK " + Long.toHexString(new CoinState().getCoins()) + " 0 PLAYING 11";
+    }
+
+    /**
+     * A connection speaking the protocol, one command and one response line at a time.
+     */
+    private static final class Client implements AutoCloseable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        private Client(GameServer server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true);
+        }
+
+        private String readLine() throws IOException {
+            return in.readLine();
+        }
+
+        private String send(String command) throws IOException {
+            out.print(command + "\n");
+            out.flush();
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private String coinsAfter(int fromRow, int fromCol, int toRow, int toCol) {
+        long coins = new CoinState().getCoins();
+        return Long.toHexString(bitboard.move(coins, bitboard.index(fromRow, fromCol), bitboard.index(toRow, toCol)));
+    }
+
+    @Test
+    public void testCommands() throws IOException {
+        try (var server = new GameServer(sessions, 0)) {
+            server.start();
+            try (var client = new Client(server)) {
+                assertEquals(start, client.readLine());
+                assertEquals(start, client.send("STATE"));
+                assertEquals("ERR nothing to undo", client.send("UNDO"));
+                assertEquals("OK " + coinsAfter(1, 1, 0, 1) + " 1 PLAYING 10", client.send("MOVE 1 1 0 1"));
+                assertEquals(start, client.send("undo"));
+                String hint = client.send("HINT");
+                assertTrue(hint.matches("OK \\d \\d \\d \\d"), hint);
+                String[] squares = hint.substring(3).split(" ");
+                String state = client.send("MOVE " + String.join(" ", squares));
+                assertTrue(state.endsWith(" 1 PLAYING 10"), state);
+                assertEquals(start, client.send("RESTART"));
+                assertEquals("BYE", client.send("QUIT"));
+                assertNull(client.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        try (var server = new GameServer(sessions, 0)) {
+            server.start();
+            try (var client = new Client(server)) {
+                assertEquals(start, client.readLine());
+                assertEquals("ERR usage: MOVE r1 c1 r2 c2", client.send("MOVE 1 1 0"));
+                assertEquals("ERR usage: MOVE r1 c1 r2 c2", client.send("MOVE 1 1 0 1 2"));
+                assertEquals("ERR usage: MOVE r1 c1 r2 c2", client.send("MOVE a b c d"));
+                assertEquals("ERR illegal move", client.send("MOVE 1 1 0 9"));
+                assertEquals("ERR illegal move", client.send("MOVE -1 0 0 0"));
+                assertEquals("ERR illegal move", client.send("MOVE 0 0 0 1"));
+                assertEquals("ERR unknown command", client.send("JUMP"));
+                assertEquals("ERR unknown command", client.send(""));
+                // Errors leave the game as it was
+                assertEquals(start, client.send("STATE"));
+            }
+        }
+    }
+
+    @Test
+    public void testSolveOverTheWire() throws IOException {
+        try (var server = new GameServer(sessions, 0)) {
+            server.start();
+            try (var client = new Client(server)) {
+                String state = client.readLine();
+                while (state.contains("PLAYING")) {
+                    state = client.send("MOVE " + client.send("HINT").substring(3));
+                }
+                assertEquals("OK " + Long.toHexString(bitboard.corners()) + " 11 SOLVED 0", state);
+                assertEquals("ERR no hint", client.send("HINT"));
+            }
+        }
+    }
+
+    @Test
+    public void testSessionIsRemovedWhenConnectionCloses() throws IOException, InterruptedException {
+        try (var server = new GameServer(sessions, 0)) {
+            server.start();
+            try (var first = new Client(server); var second = new Client(server)) {
+                first.readLine();
+                second.readLine();
+                assertEquals(2, sessions.size());
+                first.send("MOVE 1 1 0 1");
+                assertEquals(start, second.send("STATE"));
+                assertEquals("BYE", first.send("QUIT"));
+            }
+            for (var i = 0; i < 100 && sessions.size() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, sessions.size());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.server.GameSession;
+import puzzle.server.SessionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionTest {
+
+    private final SessionManager manager = new SessionManager();
+    private final Bitboard bitboard = manager.getBitboard();
+
+    @Test
+    public void testMoveAndUndo() {
+        GameSession session = manager.create();
+        long start = session.getCoins();
+        assertEquals(new CoinState().getCoins(), start);
+        assertEquals(11, session.getDistance());
+
+        assertTrue(session.move(bitboard.index(1, 1), bitboard.index(0, 1)));
+        assertFalse(session.move(bitboard.index(0, 0), bitboard.index(0, 1)));
+        assertEquals(1, session.getMoveCount());
+        assertEquals(GameSession.Status.PLAYING, session.getStatus());
+
+        assertTrue(session.undo());
+        assertFalse(session.undo());
+        assertEquals(start, session.getCoins());
+    }
+
+    @Test
+    public void testHintsSolve() {
+        GameSession session = manager.create();
+        while (session.getStatus() == GameSession.Status.PLAYING) {
+            int move = session.hint();
+            assertTrue(session.move(Bitboard.from(move), Bitboard.to(move)));
+        }
+        assertEquals(GameSession.Status.SOLVED, session.getStatus());
+        assertEquals(11, session.getMoveCount());
+        assertEquals(-1, session.hint());
+
+        session.restart();
+        assertEquals(0, session.getMoveCount());
+        assertEquals(GameSession.Status.PLAYING, session.getStatus());
+    }
+
+    @Test
+    public void testSessionsAreIndependent() {
+        GameSession first = manager.create();
+        GameSession second = manager.create();
+        assertNotEquals(first.getId(), second.getId());
+        first.move(bitboard.index(1, 1), bitboard.index(0, 1));
+        assertNotEquals(first.getCoins(), second.getCoins());
+        assertSame(first, manager.get(first.getId()));
+        manager.remove(first.getId());
+        assertNull(manager.get(first.getId()));
+        assertEquals(1, manager.size());
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+import puzzle.TwoPhaseMoveState;
+import puzzle.model.Bitboard;
+import puzzle.model.LabelledCoinState;
+import puzzle.model.Position;
+import puzzle.solver.LabelledSolver;
+import puzzle.solver.PatternDatabase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelledSolverTest {
+
+    private static final int[] GOALS = {15, 12, 3, 0};
+
+    private static TwoPhaseMoveState.TwoPhaseMove<Position> toMove(Bitboard bitboard, int move) {
+        int from = Bitboard.from(move);
+        int to = Bitboard.to(move);
+        return new TwoPhaseMoveState.TwoPhaseMove<>(new Position(bitboard.row(from), bitboard.col(from)),
+                new Position(bitboard.row(to), bitboard.col(to)));
+    }
+
+    @Test
+    public void testGoalNamesEveryCoin() {
+        var swapped = LabelledCoinState.of(Bitboard.STANDARD, new int[]{0, 3, 12, 15}, GOALS);
+        assertFalse(swapped.isSolved());
+        assertEquals(Bitboard.STANDARD.corners(), swapped.getCoins());
+        var solved = LabelledCoinState.of(Bitboard.STANDARD, GOALS, GOALS);
+        assertTrue(solved.isSolved());
+        assertEquals(0, solved.getCoin(new Position(3, 3)));
+        assertEquals(LabelledCoinState.NO_COIN, solved.getCoin(new Position(1, 1)));
+    }
+
+    @Test
+    public void testMoveKeepsLabel() {
+        var state = new LabelledCoinState();
+        state.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(1, 1), new Position(0, 1)));
+        assertEquals(0, state.getCoin(new Position(0, 1)));
+        assertEquals(LabelledCoinState.NO_COIN, state.getCoin(new Position(1, 1)));
+    }
+
+    @Test
+    public void testInvalidGoals() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LabelledCoinState.of(Bitboard.STANDARD, new int[]{5, 6, 9, 10}, new int[]{15, 12, 3, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> LabelledCoinState.of(Bitboard.STANDARD, new int[]{5, 5, 9, 10}, GOALS));
+    }
+
+    @Test
+    public void testSolvesStandardPuzzle() {
+        var state = new LabelledCoinState();
+        var solution = LabelledSolver.of(state).solve(state).orElseThrow();
+        assertEquals(12, solution.moves().length);
+        for (int move : solution.moves()) {
+            var twoPhaseMove = toMove(state.getBitboard(), move);
+            assertTrue(state.isLegalMove(twoPhaseMove));
+            state.makeMove(twoPhaseMove);
+        }
+        assertTrue(state.isSolved());
+    }
+
+    @Test
+    public void testSolvedAndUnsolvable() {
+        var solver = new LabelledSolver(PatternDatabase.build(Bitboard.STANDARD, GOALS));
+        var solved = LabelledCoinState.of(Bitboard.STANDARD, GOALS, GOALS);
+        assertEquals(0, solver.solve(solved).orElseThrow().moves().length);
+        // No coin is next to another coin, so no move can be made
+        var stuck = LabelledCoinState.of(Bitboard.STANDARD, new int[]{0, 3, 12, 15}, GOALS);
+        assertTrue(solver.solve(stuck).isEmpty());
+    }
+
+    @Test
+    public void testEstimateIsAdmissible() {
+        var database = PatternDatabase.build(Bitboard.STANDARD, GOALS);
+        var solver = new LabelledSolver(database);
+        int[] squares = {5, 6, 9, 10};
+        assertTrue(database.estimate(squares)
+                <= solver.solve(LabelledCoinState.of(Bitboard.STANDARD, squares, GOALS)).orElseThrow().moves().length);
+        assertEquals(0, database.estimate(GOALS));
+    }
+
+    @Test
+    public void testResourceMatchesBuiltDatabase() throws IOException {
+        var built = PatternDatabase.build(Bitboard.STANDARD, GOALS);
+        var out = new ByteArrayOutputStream();
+        built.write(out);
+        var read = PatternDatabase.read(new ByteArrayInputStream(out.toByteArray()));
+        var loaded = PatternDatabase.of(Bitboard.STANDARD, GOALS);
+        assertArrayEquals(GOALS, read.getGoals());
+        for (var a = 0; a < 16; a++) {
+            for (var b = 0; b < 16; b++) {
+                int[] squares = {a, b, (a + 5) % 16, (b + 7) % 16};
+                if (Arrays.stream(squares).distinct().count() == 4) {
+                    assertEquals(built.estimate(squares), read.estimate(squares));
+                    assertEquals(built.estimate(squares), loaded.estimate(squares));
+                }
+            }
+        }
+    }
+}
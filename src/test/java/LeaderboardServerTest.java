@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.result.GameResult;
+import puzzle.result.JsonGameResultManager;
+import puzzle.result.LeaderboardServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardServerTest {
+
+    @TempDir
+    Path directory;
+
+    private JsonGameResultManager manager;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = new JsonGameResultManager(directory.resolve("results.json"));
+        manager.addAll(List.of(GameResults.result("Ann", true, 14), GameResults.result("Bob", false, 9), GameResults.result("Cid", true, 11)));
+    }
+
+    private HttpResponse<String> get(LeaderboardServer server, String path, String etag)
+            throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(uri(server, path));
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(LeaderboardServer server, String body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(uri(server, "/results"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(LeaderboardServer server, String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    @Test
+    public void testLeaderboardAndNotModified() throws IOException, InterruptedException {
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            var response = get(server, "/leaderboard?limit=1", null);
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("Cid"));
+            assertFalse(response.body().contains("Ann"));
+            String etag = response.headers().firstValue("ETag").orElseThrow();
+            assertEquals(304, get(server, "/leaderboard", etag).statusCode());
+            assertEquals(400, get(server, "/leaderboard?limit=x", null).statusCode());
+            assertEquals(400, get(server, "/leaderboard?limit=100000", null).statusCode());
+        }
+    }
+
+    @Test
+    public void testPlayers() throws IOException, InterruptedException {
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            var response = get(server, "/players/Ann", null);
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("\"bestMoves\":14"));
+            assertEquals(404, get(server, "/players/Nobody", null).statusCode());
+        }
+    }
+
+    @Test
+    public void testSubmitResult() throws IOException, InterruptedException {
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            String etag = get(server, "/leaderboard", null).headers().firstValue("ETag").orElseThrow();
+            var response = post(server,
+                    "{\"nameOfPlayer\":\"Dee\",\"solved\":true,\"numberOfMoves\":10,\"duration\":\"PT42S\"}");
+            assertEquals(201, response.statusCode());
+            var leaderboard = get(server, "/leaderboard", etag);
+            assertEquals(200, leaderboard.statusCode());
+            assertTrue(leaderboard.body().startsWith("[{\"nameOfPlayer\":\"Dee\""));
+            assertEquals(405, get(server, "/results", null).statusCode());
+        }
+        assertEquals(4, manager.getAll().size());
+    }
+
+    @Test
+    public void testRejectsInvalidResults() throws IOException, InterruptedException {
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            for (String body : new String[]{
+                    "not json",
+                    "",
+                    "{\"solved\":true,\"numberOfMoves\":10,\"duration\":\"PT42S\"}",
+                    "{\"nameOfPlayer\":\"Dee\",\"solved\":true,\"numberOfMoves\":1.5,\"duration\":\"PT42S\"}",
+                    "{\"nameOfPlayer\":\"Dee\",\"solved\":true,\"numberOfMoves\":10,\"duration\":\"garbage\"}"}) {
+                assertEquals(400, post(server, body).statusCode(), body);
+            }
+        }
+        assertEquals(3, manager.getAll().size());
+    }
+
+    @Test
+    public void testEtagChangesAfterRestart() throws IOException, InterruptedException {
+        String etag;
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            etag = get(server, "/leaderboard", null).headers().firstValue("ETag").orElseThrow();
+        }
+        manager.add(GameResults.result("Eve", true, 8));
+        Thread.sleep(2);
+        try (var server = new LeaderboardServer(manager, 0)) {
+            server.start();
+            var response = get(server, "/leaderboard", etag);
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("Eve"));
+        }
+    }
+}
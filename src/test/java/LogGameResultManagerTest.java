@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.result.GameResult;
+import puzzle.result.LogGameResultManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogGameResultManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<GameResult> results(int count) {
+        List<GameResult> results = new ArrayList<>();
+        for (var i = 0; i < count; i++) {
+            results.add(GameResults.result("p" + i, i % 2 == 0, 10 + i));
+        }
+        return results;
+    }
+
+    private Path log() {
+        return directory.resolve("results.log");
+    }
+
+    private Path checkpoint() {
+        return directory.resolve("results.log.checkpoint");
+    }
+
+    @Test
+    public void testAddKeepsResultsInMemory() throws IOException {
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(List.of(GameResults.result("a", true, 12)), manager.add(GameResults.result("a", true, 12)));
+            assertEquals(List.of(GameResults.result("a", true, 12), GameResults.result("b", false, 13)), manager.add(GameResults.result("b", false, 13)));
+            List<GameResult> all = manager.getAll();
+            all.clear();
+            assertEquals(2, manager.getAll().size());
+        }
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(List.of(GameResults.result("a", true, 12), GameResults.result("b", false, 13)), manager.getAll());
+        }
+    }
+
+    @Test
+    public void testCutsOffTornRecord() throws IOException {
+        try (var manager = new LogGameResultManager(log())) {
+            manager.append(results(3));
+        }
+        long size = Files.size(log());
+        // A crash in the middle of a record: the header promises more bytes than were written
+        Files.write(log(), new byte[]{0, 0, 0, 100, 1, 2, 3, 4, '{'}, StandardOpenOption.APPEND);
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(size, Files.size(log()));
+            assertEquals(results(3), manager.getAll());
+            manager.add(GameResults.result("next", true, 20));
+        }
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(4, manager.getAll().size());
+        }
+    }
+
+    @Test
+    public void testCutsOffRecordWithBadChecksum() throws IOException {
+        try (var manager = new LogGameResultManager(log())) {
+            manager.append(results(2));
+            manager.append(List.of(GameResults.result("last", true, 20)));
+        }
+        // Flip a byte in the payload of the last record
+        try (var channel = FileChannel.open(log(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = ByteBuffer.allocate(1);
+            long position = channel.size() - 3;
+            channel.read(buffer, position);
+            buffer.put(0, (byte) (buffer.get(0) ^ 1)).rewind();
+            channel.write(buffer, position);
+        }
+        // Without a checkpoint every record is validated
+        Files.delete(checkpoint());
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(results(2), manager.getAll());
+        }
+    }
+
+    @Test
+    public void testIgnoresInvalidCheckpoint() throws IOException {
+        try (var manager = new LogGameResultManager(log())) {
+            manager.append(results(5));
+        }
+        Files.write(checkpoint(), new byte[]{1, 2, 3});
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(results(5), manager.getAll());
+        }
+        // A checkpoint past the end of the log, after the log was replaced by a shorter one
+        try (var manager = new LogGameResultManager(log())) {
+            manager.append(results(100));
+        }
+        Files.delete(log());
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(List.of(), manager.getAll());
+            manager.add(GameResults.result("a", true, 12));
+        }
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(List.of(GameResults.result("a", true, 12)), manager.getAll());
+        }
+    }
+
+    @Test
+    public void testCheckpointSkipsValidatedRecords() throws IOException {
+        try (var manager = new LogGameResultManager(log())) {
+            manager.append(results(LogGameResultManager.CHECKPOINT_INTERVAL));
+            manager.append(List.of(GameResults.result("after", true, 20)));
+        }
+        long checkpointed = Files.size(log());
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(LogGameResultManager.CHECKPOINT_INTERVAL + 1, manager.getAll().size());
+        }
+        // Damage after the checkpoint is cut off, the records before it are kept
+        Files.write(log(), new byte[]{0, 0}, StandardOpenOption.APPEND);
+        try (var manager = new LogGameResultManager(log())) {
+            assertEquals(checkpointed, Files.size(log()));
+            assertEquals(LogGameResultManager.CHECKPOINT_INTERVAL + 1, manager.getAll().size());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.metrics.Counter;
+import puzzle.metrics.Histogram;
+import puzzle.metrics.Metrics;
+import puzzle.metrics.Timer;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testCounter() {
+        Counter counter = Metrics.counter("test.counter");
+        long before = counter.getCount();
+        counter.increment();
+        counter.add(41);
+        assertEquals(before + 42, counter.getCount());
+        assertSame(counter, Metrics.counter("test.counter"));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        Histogram histogram = Metrics.histogram("test.histogram.buckets");
+        assertEquals(0, histogram.percentile(0.5));
+        // Buckets by power of two: 0, 1, 2..3, 4..7, 8..15, ...
+        for (long value : new long[]{0, 1, 2, 3, 4, 7, 8, 100, 1000, -5}) {
+            histogram.record(value);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(112.5, histogram.getMean(), 1e-9);
+        assertEquals(0, histogram.percentile(0.2));
+        assertEquals(1, histogram.percentile(0.3));
+        assertEquals(3, histogram.percentile(0.5));
+        assertEquals(7, histogram.percentile(0.7));
+        assertEquals(15, histogram.percentile(0.8));
+        assertEquals(127, histogram.percentile(0.9));
+        // Capped by the largest value instead of the bucket bound of 1023
+        assertEquals(1000, histogram.getP99());
+    }
+
+    @Test
+    public void testHistogramLargestValues() {
+        Histogram histogram = Metrics.histogram("test.histogram.largest");
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 62);
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(Long.MAX_VALUE, histogram.getP99());
+        assertEquals(Long.MAX_VALUE, histogram.getP50());
+    }
+
+    @Test
+    public void testTimer() throws InterruptedException {
+        Timer timer = Metrics.timer("test.timer");
+        long start = timer.start();
+        Thread.sleep(5);
+        long elapsed = timer.stop(start);
+        assertTrue(elapsed >= Duration.ofMillis(5).toNanos());
+        assertEquals(1, timer.getCount());
+        assertEquals(elapsed, timer.getMax());
+        assertSame(timer, Metrics.timer("test.timer"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.histogram("test.timer"));
+        Metrics.histogram("test.histogram.named");
+        assertThrows(IllegalArgumentException.class, () -> Metrics.timer("test.histogram.named"));
+    }
+
+    @Test
+    public void testSnapshots() throws IOException, InterruptedException {
+        Metrics.counter("test.snapshot").add(3);
+        var writer = new StringWriter();
+        Metrics.writeSnapshot(writer);
+        assertTrue(writer.toString().contains("test.snapshot count="));
+
+        Path file = directory.resolve("metrics.txt");
+        Metrics.startSnapshots(file, Duration.ofMillis(10));
+        try {
+            for (var i = 0; i < 500 && !Files.exists(file); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            Metrics.stopSnapshots();
+        }
+        assertTrue(Files.readString(file).contains("test.snapshot count="));
+    }
+
+    @Test
+    public void testMBeansAreRegisteredOnlyWhenAsked() throws Exception {
+        Metrics.counter("test.jmx.early");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var early = new ObjectName("puzzle:type=Counter,name=" + ObjectName.quote("test.jmx.early"));
+        assertFalse(server.isRegistered(early));
+        Metrics.registerMBeans();
+        Metrics.registerMBeans();
+        assertTrue(server.isRegistered(early));
+        Metrics.timer("test.jmx.late");
+        assertTrue(server.isRegistered(new ObjectName("puzzle:type=Timer,name=" + ObjectName.quote("test.jmx.late"))));
+    }
+}
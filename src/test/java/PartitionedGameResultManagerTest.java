@@ -0,0 +1,173 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.result.GameResult;
+import puzzle.result.PartitionedGameResultManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedGameResultManagerTest {
+
+    private static final Instant DAY = Instant.parse("2024-05-01T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private static Clock day(int offset) {
+        return Clock.fixed(DAY.plus(Duration.ofDays(offset)), ZoneOffset.UTC);
+    }
+
+    private List<String> files(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static List<GameResult> byName(List<GameResult> results) {
+        return results.stream().sorted(Comparator.comparing(GameResult::getNameOfPlayer)).toList();
+    }
+
+    @Test
+    public void testRollsOverBySizeInBytes() throws IOException {
+        // Four bytes but two chars per emoji, so that counting chars would fit more lines in a partition
+        List<GameResult> results = new ArrayList<>();
+        for (var i = 0; i < 10; i++) {
+            results.add(GameResults.result("😀".repeat(20) + i, true, 10 + i));
+        }
+        Path single = directory.resolve("single");
+        new PartitionedGameResultManager(single, Long.MAX_VALUE, day(0)).append(results.subList(0, 1));
+        long lineBytes = Files.size(single.resolve(files(single, ".jsonl").get(0)));
+
+        Path partitioned = directory.resolve("partitioned");
+        var manager = new PartitionedGameResultManager(partitioned, 5 * lineBytes, day(0));
+        manager.append(results);
+        assertEquals(List.of("results-2024-05-01-000.bin"), files(partitioned, ".bin"));
+        assertEquals(List.of("results-2024-05-01-001.jsonl"), files(partitioned, ".jsonl"));
+        assertEquals(5 * lineBytes, Files.size(partitioned.resolve("results-2024-05-01-001.jsonl")));
+        assertEquals(byName(results), byName(manager.getAll()));
+        assertEquals(byName(results), byName(new PartitionedGameResultManager(partitioned, 5 * lineBytes, day(0)).getAll()));
+    }
+
+    @Test
+    public void testRollsOverEveryDay() throws IOException {
+        new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0)).add(GameResults.result("a", true, 14));
+        new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1)).add(GameResults.result("b", true, 12));
+        var manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1));
+        manager.add(GameResults.result("c", false, 9));
+        assertEquals(List.of("results-2024-05-01-000.bin"), files(directory, ".bin"));
+        assertEquals(List.of("results-2024-05-02-000.jsonl"), files(directory, ".jsonl"));
+        assertEquals(List.of("a", "b", "c"), manager.getAll().stream().map(GameResult::getNameOfPlayer).toList());
+    }
+
+    @Test
+    public void testBestSkipsPartitions() throws IOException {
+        var manager = new PartitionedGameResultManager(directory, 1500, day(0));
+        List<GameResult> results = new ArrayList<>();
+        for (var i = 0; i < 300; i++) {
+            // Later partitions hold fewer moves, so that the early ones have to be skipped by their least moves
+            results.add(GameResults.result("p" + i, i % 4 != 0, 400 - i + i % 7));
+        }
+        manager.append(results);
+        assertTrue(files(directory, ".bin").size() > 3);
+        for (int limit : new int[]{1, 5, 17, 300}) {
+            List<GameResult> expected = results.stream()
+                    .filter(GameResult::isSolved)
+                    .sorted(Comparator.comparingInt(GameResult::getNumberOfMoves))
+                    .limit(limit)
+                    .toList();
+            assertEquals(expected, manager.getBest(limit), "limit " + limit);
+        }
+        assertEquals(List.of(), manager.getBest(0));
+    }
+
+    @Test
+    public void testCompactionKeepsLongStrings() throws IOException {
+        var manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0));
+        var longMoves = GameResults.result("long", true, 40_000);
+        longMoves.setMoves("0123".repeat(40_000));
+        var noMoves = GameResults.result("none", false, 3);
+        var someMoves = GameResults.result("some", true, 2);
+        someMoves.setMoves("11012111");
+        manager.append(List.of(longMoves, noMoves, someMoves));
+        new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1)).add(GameResults.result("next", true, 5));
+        manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1));
+        manager.compact();
+        assertEquals(List.of("results-2024-05-01-000.bin"), files(directory, ".bin"));
+        // Compacted partitions hold the solved results first, by number of moves
+        assertEquals(List.of(someMoves, longMoves, noMoves, GameResults.result("next", true, 5)), manager.getAll());
+        assertEquals(List.of(someMoves, GameResults.result("next", true, 5)), manager.getBest(2));
+    }
+
+    @Test
+    public void testAppendAfterTornLine() throws IOException {
+        var manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0));
+        manager.append(List.of(GameResults.result("a", true, 14), GameResults.result("b", false, 9)));
+        Path active = directory.resolve(files(directory, ".jsonl").get(0));
+        long size = Files.size(active);
+        // A crash in the middle of an append
+        Files.writeString(active, "{\"nameOfPlayer\":\"c\",\"sol", StandardOpenOption.APPEND);
+
+        manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0));
+        assertEquals(size, Files.size(active));
+        manager.add(GameResults.result("d", true, 12));
+        manager.add(GameResults.result("e", true, 11));
+        assertEquals(List.of("a", "b", "d", "e"), manager.getAll().stream().map(GameResult::getNameOfPlayer).toList());
+        assertEquals(List.of("e", "d", "a"), new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0))
+                .getBest(3).stream().map(GameResult::getNameOfPlayer).toList());
+    }
+
+    @Test
+    public void testRecoversResultsWrittenBeforeCrashInManifestWrite() throws IOException {
+        var manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0));
+        manager.add(GameResults.result("a", false, 14));
+        Path manifest = directory.resolve("manifest.json");
+        byte[] before = Files.readAllBytes(manifest);
+        manager.add(GameResults.result("b", true, 12));
+        // A crash after the partition was written but before the manifest was replaced
+        Files.write(manifest, before);
+
+        manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0));
+        assertEquals(List.of("a", "b"), manager.getAll().stream().map(GameResult::getNameOfPlayer).toList());
+        assertEquals(List.of(GameResults.result("b", true, 12)), manager.getBest(1));
+        assertNotEquals(new String(before, StandardCharsets.UTF_8), Files.readString(manifest));
+    }
+
+    @Test
+    public void testRecoversPartitionMissingFromManifest() throws IOException {
+        new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(0)).add(GameResults.result("a", true, 14));
+        Path compacted = directory.resolve("results-2024-05-01-000.jsonl");
+        String original = Files.readString(compacted);
+        new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1)).add(GameResults.result("b", true, 12));
+        // A crash after the new partition was written but before the manifest listed it
+        Path manifest = directory.resolve("manifest.json");
+        JsonArray partitions = JsonParser.parseString(Files.readString(manifest)).getAsJsonArray();
+        partitions.remove(partitions.size() - 1);
+        Files.writeString(manifest, partitions.toString());
+        // and a crash in an earlier compaction before the original was deleted
+        Files.writeString(compacted, original);
+
+        var manager = new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1));
+        assertFalse(Files.exists(compacted));
+        assertEquals(List.of("a", "b"), manager.getAll().stream().map(GameResult::getNameOfPlayer).toList());
+        assertEquals(List.of(GameResults.result("b", true, 12), GameResults.result("a", true, 14)), manager.getBest(2));
+        manager.add(GameResults.result("c", true, 10));
+        assertEquals(List.of("results-2024-05-02-000.jsonl"), files(directory, ".jsonl"));
+        assertEquals(List.of("c", "b", "a"), new PartitionedGameResultManager(directory, Long.MAX_VALUE, day(1))
+                .getBest(3).stream().map(GameResult::getNameOfPlayer).toList());
+    }
+}
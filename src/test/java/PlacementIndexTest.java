@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.PlacementIndex;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementIndexTest {
+
+    @Test
+    public void testRanksAreDenseAndOrdered() {
+        var index = PlacementIndex.of(Bitboard.STANDARD, 4);
+        assertEquals(1820, index.size());
+        long rank = 0;
+        for (long coins = 0; coins <= Bitboard.STANDARD.fullMask(); coins++) {
+            if (Long.bitCount(coins) == 4) {
+                assertEquals(rank, index.rank(coins));
+                assertEquals(coins, index.unrank(rank));
+                rank++;
+            }
+        }
+        assertEquals(index.size(), rank);
+    }
+
+    @Test
+    public void testLargeBoard() {
+        var index = PlacementIndex.of(Bitboard.of(8), 32);
+        assertEquals(1832624140942590534L, index.size());
+        assertEquals(0xFFFFFFFFL, index.unrank(0));
+        assertEquals(0xFFFFFFFF00000000L, index.unrank(index.size() - 1));
+        assertEquals(index.size() - 1, index.rank(0xFFFFFFFF00000000L));
+    }
+
+    @Test
+    public void testContains() {
+        var index = PlacementIndex.of(Bitboard.STANDARD, 4);
+        assertTrue(index.contains(0b1111));
+        assertFalse(index.contains(0b111));
+        assertFalse(index.contains(0b111L | 1L << 16));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> PlacementIndex.of(Bitboard.STANDARD, 17));
+        var index = PlacementIndex.of(Bitboard.STANDARD, 4);
+        assertThrows(IndexOutOfBoundsException.class, () -> index.unrank(index.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.unrank(-1));
+    }
+}
@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.CoinState;
+import puzzle.solver.DistanceTable;
+import puzzle.solver.PuzzleGenerator;
+import puzzle.solver.PuzzleGenerator.Difficulty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleGeneratorTest {
+
+    @Test
+    public void testPuzzlesFallInBand() {
+        var difficulty = new Difficulty(7, 9, 0.2, 0.8);
+        var generator = new PuzzleGenerator(difficulty, new Random(1));
+        generator.stream().limit(1000).forEach(puzzle -> {
+            assertEquals(puzzle.optimalMoves(), DistanceTable.standard().distance(puzzle.coins()));
+            assertTrue(puzzle.optimalMoves() >= 7 && puzzle.optimalMoves() <= 9);
+            assertTrue(puzzle.deadEndRatio() >= 0.2 && puzzle.deadEndRatio() <= 0.8);
+        });
+    }
+
+    @Test
+    public void testPuzzleAsCoinState() {
+        var puzzle = new PuzzleGenerator(Difficulty.EASY, new Random(2)).next();
+        CoinState coinState = puzzle.toCoinState();
+        assertEquals(puzzle.coins(), coinState.getCoins());
+        assertFalse(coinState.isSolved());
+    }
+
+    @Test
+    public void testEmptyBand() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PuzzleGenerator(Difficulty.moves(15, 20), new Random(3)));
+        assertThrows(IllegalArgumentException.class, () -> Difficulty.moves(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new Difficulty(1, 3, 0.5, 0.4));
+    }
+}
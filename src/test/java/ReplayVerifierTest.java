@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.result.GameResult;
+import puzzle.result.ReplayVerifier;
+import puzzle.result.ReplayVerifier.Verdict;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayVerifierTest {
+
+    private static final String SOLUTION = "11012111222312131110131101001131103031332303";
+
+    private final ReplayVerifier verifier = new ReplayVerifier();
+
+    @Test
+    public void testValid() {
+        assertEquals(Verdict.VALID, verifier.verify(SOLUTION, 11, true));
+        assertEquals(Verdict.VALID, verifier.verify("11012111", 2, false));
+        assertEquals(Verdict.VALID, verifier.verify("", 0, false));
+    }
+
+    @Test
+    public void testMismatches() {
+        assertEquals(Verdict.MOVE_COUNT_MISMATCH, verifier.verify(SOLUTION, 10, true));
+        assertEquals(Verdict.SOLVED_MISMATCH, verifier.verify(SOLUTION, 11, false));
+        assertEquals(Verdict.SOLVED_MISMATCH, verifier.verify("11012111", 2, true));
+    }
+
+    @Test
+    public void testIllegalMoves() {
+        // No coin on (0, 0)
+        assertEquals(Verdict.ILLEGAL_MOVE, verifier.verify("0001", 1, false));
+        // Jumping over a coin
+        assertEquals(Verdict.ILLEGAL_MOVE, verifier.verify("1131", 1, false));
+        // Moving diagonally
+        assertEquals(Verdict.ILLEGAL_MOVE, verifier.verify("1100", 1, false));
+    }
+
+    @Test
+    public void testMalformed() {
+        assertEquals(Verdict.MALFORMED, verifier.verify("110", 1, false));
+        assertEquals(Verdict.MALFORMED, verifier.verify("11a1", 1, false));
+        assertEquals(Verdict.MALFORMED, verifier.verify("1141", 1, false));
+    }
+
+    @Test
+    public void testNotRecorded() {
+        GameResult result = GameResult.builder().nameOfPlayer("Jewel").solved(true).numberOfMoves(11).build();
+        assertEquals(Verdict.NOT_RECORDED, verifier.verify(result));
+        result.setMoves(SOLUTION);
+        assertEquals(Verdict.VALID, verifier.verify(result));
+    }
+
+    @Test
+    public void testEncode() {
+        Bitboard bitboard = Bitboard.STANDARD;
+        int[] moves = {Bitboard.packMove(bitboard.index(1, 1), bitboard.index(0, 1)),
+                Bitboard.packMove(bitboard.index(2, 1), bitboard.index(1, 1))};
+        assertEquals("11012111", ReplayVerifier.encode(bitboard, moves));
+    }
+
+    @Test
+    public void testVerifyAll() throws IOException {
+        Path file = Files.createTempFile("replay", ".jsonl");
+        try {
+            Files.write(file, List.of(
+                    "{\"nameOfPlayer\":\"a\",\"solved\":true,\"numberOfMoves\":11,\"duration\":\"PT1M\",\"moves\":\"" + SOLUTION + "\"}",
+                    "{\"nameOfPlayer\":\"b\",\"solved\":true,\"numberOfMoves\":2,\"duration\":\"PT1M\",\"moves\":\"11012111\"}",
+                    "",
+                    "{\"nameOfPlayer\":\"c\",\"solved\":false,\"numberOfMoves\":5,\"duration\":\"PT1M\"}",
+                    "{\"nameOfPlayer\":"));
+            var report = verifier.verifyAll(file);
+            assertEquals(4, report.results());
+            assertEquals(13, report.moves());
+            assertEquals(1, report.count(Verdict.VALID));
+            assertEquals(1, report.count(Verdict.SOLVED_MISMATCH));
+            assertEquals(1, report.count(Verdict.NOT_RECORDED));
+            assertEquals(1, report.count(Verdict.MALFORMED));
+            assertEquals(0, report.count(Verdict.ILLEGAL_MOVE));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testVerifyAllCountsUnparsableValuesAsMalformed() throws IOException {
+        Path file = Files.createTempFile("replay", ".jsonl");
+        try {
+            Files.write(file, List.of(
+                    "{\"nameOfPlayer\":\"a\",\"solved\":true,\"numberOfMoves\":1.5,\"duration\":\"PT1M\"}",
+                    "{\"nameOfPlayer\":\"b\",\"solved\":true,\"numberOfMoves\":11,\"duration\":\"garbage\"}",
+                    "{\"nameOfPlayer\":\"c\",\"solved\":\"maybe\",\"numberOfMoves\":11,\"duration\":\"PT1M\"}",
+                    "{\"nameOfPlayer\":\"d\",\"solved\":true,\"numberOfMoves\":11,\"duration\":\"PT1M\",\"moves\":\"" + SOLUTION + "\"}"));
+            var report = verifier.verifyAll(file);
+            assertEquals(4, report.results());
+            assertEquals(3, report.count(Verdict.MALFORMED));
+            assertEquals(1, report.count(Verdict.VALID));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
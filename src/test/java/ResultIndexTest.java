@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+import puzzle.result.GameResult;
+import puzzle.result.ResultIndex;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultIndexTest {
+
+    @Test
+    public void testBestKeepsOrderOfEqualMoves() {
+        var index = new ResultIndex(List.of(GameResults.result("a", true, 14), GameResults.result("b", false, 9), GameResults.result("c", true, 12)));
+        index.add(GameResults.result("d", true, 12));
+        index.add(GameResults.result("e", true, 20));
+        assertEquals(List.of("c", "d", "a"), index.getBest(3).stream().map(GameResult::getNameOfPlayer).toList());
+        assertEquals(4, index.getBest(10).size());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void testPlayerStats() {
+        var index = new ResultIndex(List.of(GameResults.result("a", false, 9), GameResults.result("a", true, 14)));
+        index.add(GameResults.result("a", true, 12));
+        var stats = index.getPlayerStats("a").orElseThrow();
+        assertEquals(new ResultIndex.PlayerStats("a", 3, 2, 12, Duration.ofSeconds(35).toNanos()), stats);
+        assertTrue(index.getPlayerStats("b").isEmpty());
+    }
+
+    @Test
+    public void testVersionChangesOnAddAndDiffersBetweenIndexes() throws InterruptedException {
+        var first = new ResultIndex(List.of());
+        long version = first.getVersion();
+        first.add(GameResults.result("a", true, 12));
+        assertEquals(version + 1, first.getVersion());
+        Thread.sleep(2);
+        // A new index, as after a restart, must not hand out the versions of the old one
+        var second = new ResultIndex(List.of());
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import puzzle.result.GameResult;
+import puzzle.result.JsonGameResultManager;
+import puzzle.result.ResultTransfer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultTransferTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testImportInChunksRemovesDuplicates() throws IOException {
+        var store = new JsonGameResultManager(directory.resolve("results.json"));
+        store.add(GameResults.result("Stored", false, 11));
+        List<GameResult> results = new ArrayList<>();
+        for (var i = 0; i < 1000; i++) {
+            int moves = 10 + i % 37;
+            results.add(GameResults.result("Player" + i % 100, moves % 2 == 0, moves));
+        }
+        Path lines = directory.resolve("results.jsonl");
+        // Small chunks, so that the file is cut in many places
+        var transfer = new ResultTransfer(256);
+        transfer.export(results, lines, ResultTransfer.Format.JSON_LINES);
+        Files.writeString(lines, "not a result\n" + GameResults.result("Stored", false, 11).getNameOfPlayer() + "\n",
+                StandardOpenOption.APPEND);
+        Path json = directory.resolve("more.json");
+        transfer.export(List.of(GameResults.result("Stored", false, 11), GameResults.result("New", true, 12)), json, ResultTransfer.Format.JSON);
+
+        var report = transfer.importAll(store, List.of(lines, json));
+
+        long distinct = results.stream().distinct().count();
+        assertEquals(1002, report.read());
+        assertEquals(2, report.malformed());
+        assertEquals(distinct + 1, report.imported());
+        assertEquals(report.read() - report.imported(), report.duplicates());
+        List<GameResult> stored = store.getAll();
+        assertEquals(distinct + 2, stored.size());
+        assertEquals(stored.size(), stored.stream().distinct().count());
+    }
+
+    @Test
+    public void testExportRoundTrip() throws IOException {
+        List<GameResult> results = List.of(GameResults.result("Ann", true, 12), GameResults.result("Bob", false, 13));
+        var transfer = new ResultTransfer();
+        Path json = directory.resolve("results.json");
+        assertEquals(2, transfer.export(results, json, ResultTransfer.Format.JSON));
+        assertEquals(results, new JsonGameResultManager(json).getAll());
+
+        Path lines = directory.resolve("results.jsonl");
+        transfer.export(results, lines, ResultTransfer.Format.JSON_LINES);
+        var store = new JsonGameResultManager(directory.resolve("store.json"));
+        transfer.importAll(store, List.of(lines));
+        assertEquals(results, store.getAll());
+    }
+
+    @Test
+    public void testExportCsv() throws IOException {
+        Path csv = directory.resolve("results.csv");
+        new ResultTransfer().export(List.of(GameResults.result("Smith, \"Jo\"", true, 12)), csv, ResultTransfer.Format.CSV);
+        assertEquals(List.of("nameOfPlayer,solved,numberOfMoves,duration,moves", "\"Smith, \"\"Jo\"\"\",true,12,PT12S,"),
+                Files.readAllLines(csv));
+    }
+
+    @Test
+    public void testExportCsvOfImportedResultWithoutName() throws IOException {
+        Path json = directory.resolve("results.json");
+        Files.writeString(json, """
+                [{"solved": true, "numberOfMoves": 12, "duration": "PT12S"}]
+                """);
+        var store = new JsonGameResultManager(directory.resolve("store.json"));
+        var transfer = new ResultTransfer();
+        transfer.importAll(store, List.of(json));
+
+        Path csv = directory.resolve("results.csv");
+        assertEquals(1, transfer.export(store, csv, ResultTransfer.Format.CSV));
+        assertEquals(List.of("nameOfPlayer,solved,numberOfMoves,duration,moves", ",true,12,PT12S,"),
+                Files.readAllLines(csv));
+    }
+
+    @Test
+    public void testImportSkipsMalformedJsonRecords() throws IOException {
+        Path json = directory.resolve("results.json");
+        Files.writeString(json, """
+                [{"nameOfPlayer": "Ann", "solved": true, "numberOfMoves": 12, "duration": "PT12S"},
+                 {"nameOfPlayer": "Bob", "solved": true, "numberOfMoves": "many", "duration": "PT13S"},
+                 {"nameOfPlayer": "Cid", "solved": true, "numberOfMoves": 14, "duration": "soon"},
+                 null,
+                 {"nameOfPlayer": "Dan", "solved": false, "numberOfMoves": 15, "duration": "PT15S"}]
+                """);
+        var store = new JsonGameResultManager(directory.resolve("store.json"));
+
+        var report = new ResultTransfer().importAll(store, List.of(json));
+
+        assertEquals(new ResultTransfer.ImportReport(2, 3, 0, 2), report);
+        assertEquals(List.of(GameResults.result("Ann", true, 12), GameResults.result("Dan", false, 15)), store.getAll());
+    }
+
+    @Test
+    public void testImportFailsOnInvalidJson() throws IOException {
+        Path json = directory.resolve("results.json");
+        Files.writeString(json, "[{\"nameOfPlayer\": \"Ann\", ");
+        var store = new JsonGameResultManager(directory.resolve("store.json"));
+        assertThrows(IOException.class, () -> new ResultTransfer().importAll(store, List.of(json)));
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import puzzle.model.Bitboard;
+import puzzle.model.CoinState;
+import puzzle.solver.StateSpace;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSpaceTest {
+
+    private final StateSpace space = StateSpace.standard();
+
+    @Test
+    public void testStatesStartWithStart() {
+        assertEquals(new CoinState().getCoins(), space.states(false).findFirst().orElseThrow());
+    }
+
+    @Test
+    public void testParallelEmitsEveryStateOnce() {
+        long count = space.states(false).count();
+        assertEquals(count, space.states(true).count());
+        assertEquals(count, space.states(true).distinct().count());
+    }
+
+    @Test
+    public void testEdgesLeadToReachableStates() {
+        var states = space.states(false).boxed().collect(Collectors.toSet());
+        assertTrue(space.edges(true).allMatch(edge -> states.contains(edge.source()) && states.contains(edge.target())));
+        assertEquals(space.edges(false).count(), space.edges(true).count());
+    }
+
+    @Test
+    public void testSolvedStateIsReachable() {
+        assertEquals(1, space.coinStates(true).filter(CoinState::isSolved).count());
+    }
+
+    @Test
+    public void testLargerBoard() {
+        Bitboard bitboard = Bitboard.of(6);
+        long start = 1L << bitboard.index(2, 2) | 1L << bitboard.index(2, 3)
+                | 1L << bitboard.index(3, 2) | 1L << bitboard.index(3, 3);
+        var larger = new StateSpace(bitboard, start);
+        assertEquals(larger.states(false).count(), larger.states(true).count());
+        assertEquals(10, larger.states(false).limit(10).count());
+        assertThrows(UnsupportedOperationException.class, () -> larger.coinStates(false));
+    }
+}